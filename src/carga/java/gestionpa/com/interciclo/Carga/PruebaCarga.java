@@ -0,0 +1,203 @@
+package gestionpa.com.interciclo.Carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de lazo cerrado contra los endpoints de ProyectoControlador de una instancia en marcha.
+ * N clientes concurrentes repiten peticiones durante S segundos; se miden p50/p90/p99/máx y
+ * peticiones por segundo por endpoint. Para comparar modos se arranca la app con y sin
+ * spring.threads.virtual.enabled y se pasa el JSON de la primera ejecución como base de la segunda.
+ *
+ * Para comparar las dos pilas de lectura (JPA en un hilo de Tomcat por petición frente a R2DBC) se
+ * lanzan juntas con {@code -Dcarga.endpoints=resumen,rx} contra una app arrancada con app.r2dbc.url.
+ *
+ * Propiedades (-D): carga.url, carga.usuario, carga.clave, carga.concurrencia, carga.segundos,
+ * carga.calentamiento, carga.etiqueta, carga.base (JSON previo con el que comparar),
+ * carga.endpoints (claves de ENDPOINTS separadas por comas; por defecto id,pagina,resumen,search).
+ */
+public class PruebaCarga {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private record Endpoint(String nombre, String ruta) {}
+
+    private static final Map<String, Endpoint> ENDPOINTS = new LinkedHashMap<>();
+    static {
+        ENDPOINTS.put("id", new Endpoint("GET /api/proyectos/{id}", "/api/proyectos/"));
+        ENDPOINTS.put("pagina", new Endpoint("GET /api/proyectos/pagina", "/api/proyectos/pagina?tamanio=20&despuesDe="));
+        ENDPOINTS.put("resumen", new Endpoint("GET /api/proyectos/resumen", "/api/proyectos/resumen?tamanio=50&despuesDe="));
+        ENDPOINTS.put("search", new Endpoint("GET /api/proyectos/search", "/api/proyectos/search?limite=10&q="
+                + URLEncoder.encode("sistema gestion", StandardCharsets.UTF_8)));
+        ENDPOINTS.put("rx", new Endpoint("GET /api/rx/proyectos", "/api/rx/proyectos?tamanio=50&despuesDe="));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("carga.url", "http://localhost:9090");
+        String usuario = System.getProperty("carga.usuario", "ADMIN");
+        String clave = System.getProperty("carga.clave", "admin1234");
+        int concurrencia = Integer.getInteger("carga.concurrencia", 400);
+        int segundos = Integer.getInteger("carga.segundos", 30);
+        int calentamiento = Integer.getInteger("carga.calentamiento", 5);
+        String etiqueta = System.getProperty("carga.etiqueta", "plataforma");
+        String base = System.getProperty("carga.base", "");
+        String claves = System.getProperty("carga.endpoints", "id,pagina,resumen,search");
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+        String token = login(http, url, usuario, clave);
+        List<Long> ids = idsDeMuestra(http, url, token);
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String k : claves.split(",")) {
+            Endpoint e = ENDPOINTS.get(k.trim());
+            if (e == null) throw new IllegalArgumentException("carga.endpoints: '" + k + "' no es uno de " + ENDPOINTS.keySet());
+            endpoints.add(e);
+        }
+
+        System.out.printf("Carga [%s] contra %s: %d clientes, %d s (+%d s de calentamiento)%n",
+                etiqueta, url, concurrencia, segundos, calentamiento);
+        ejecutar(http, url, token, endpoints, ids, concurrencia, calentamiento, null);
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (Endpoint e : endpoints) mediciones.put(e.nombre(), new Medicion());
+        long duracionNanos = ejecutar(http, url, token, endpoints, ids, concurrencia, segundos, mediciones);
+
+        ObjectNode resultado = JSON.createObjectNode();
+        resultado.put("etiqueta", etiqueta);
+        resultado.put("concurrencia", concurrencia);
+        System.out.printf("%-28s %9s %8s %8s %8s %8s %8s %7s%n",
+                "endpoint", "ok", "req/s", "p50 ms", "p90 ms", "p99 ms", "máx ms", "errores");
+        for (Map.Entry<String, Medicion> m : mediciones.entrySet()) {
+            ObjectNode n = m.getValue().resumen(duracionNanos);
+            resultado.set(m.getKey(), n);
+            System.out.printf("%-28s %9d %8.1f %8.2f %8.2f %8.2f %8.2f %7d%n", m.getKey(),
+                    n.get("ok").asLong(), n.get("rps").asDouble(), n.get("p50").asDouble(),
+                    n.get("p90").asDouble(), n.get("p99").asDouble(), n.get("max").asDouble(),
+                    n.get("errores").asLong());
+        }
+
+        File salida = new File("target/carga-" + etiqueta + ".json");
+        salida.getParentFile().mkdirs();
+        JSON.writerWithDefaultPrettyPrinter().writeValue(salida, resultado);
+        System.out.println("Resultado: " + salida.getPath());
+
+        if (!base.isBlank()) comparar(JSON.readTree(new File(base)), resultado, endpoints);
+        System.exit(0);
+    }
+
+    /** Lazo cerrado: cada cliente lanza la siguiente petición cuando recibe la respuesta anterior. */
+    private static long ejecutar(HttpClient http, String url, String token, List<Endpoint> endpoints,
+                                 List<Long> ids, int concurrencia, int segundos,
+                                 Map<String, Medicion> mediciones) throws InterruptedException {
+        long inicio = System.nanoTime();
+        long fin = inicio + TimeUnit.SECONDS.toNanos(segundos);
+        CountDownLatch terminados = new CountDownLatch(concurrencia);
+        for (int c = 0; c < concurrencia; c++) {
+            siguiente(http, url, token, endpoints, ids, fin, mediciones, terminados, c);
+        }
+        terminados.await();
+        return System.nanoTime() - inicio;
+    }
+
+    private static void siguiente(HttpClient http, String url, String token, List<Endpoint> endpoints,
+                                  List<Long> ids, long fin, Map<String, Medicion> mediciones,
+                                  CountDownLatch terminados, int n) {
+        if (System.nanoTime() >= fin) {
+            terminados.countDown();
+            return;
+        }
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        Endpoint e = endpoints.get(n % endpoints.size());
+        String ruta = e.ruta().endsWith("=") || e.ruta().endsWith("/")
+                ? e.ruta() + ids.get(r.nextInt(ids.size()))
+                : e.ruta();
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url + ruta))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET().build();
+        long t0 = System.nanoTime();
+        http.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((res, err) -> {
+            if (mediciones != null) {
+                Medicion m = mediciones.get(e.nombre());
+                if (err == null && res.statusCode() < 400) m.registrar(System.nanoTime() - t0);
+                else m.errores.incrementAndGet();
+            }
+            siguiente(http, url, token, endpoints, ids, fin, mediciones, terminados, n + 1);
+        });
+    }
+
+    private static String login(HttpClient http, String url, String usuario, String clave) throws Exception {
+        String body = JSON.writeValueAsString(Map.of("username", usuario, "password", clave));
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) throw new IllegalStateException("Login fallido: " + res.statusCode() + " " + res.body());
+        return JSON.readTree(res.body()).get("accessToken").asText();
+    }
+
+    private static List<Long> idsDeMuestra(HttpClient http, String url, String token) throws Exception {
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/api/proyectos/pagina?tamanio=500"))
+                .header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode p : JSON.readTree(res.body()).path("items")) ids.add(p.get("id").asLong());
+        if (ids.isEmpty()) throw new IllegalStateException("No hay proyectos para la prueba");
+        return ids;
+    }
+
+    private static void comparar(JsonNode base, JsonNode actual, List<Endpoint> endpoints) {
+        System.out.printf("%nComparación %s -> %s%n", base.path("etiqueta").asText(), actual.path("etiqueta").asText());
+        System.out.printf("%-28s %12s %12s %12s %12s%n", "endpoint", "req/s base", "req/s", "p99 base", "p99");
+        for (Endpoint e : endpoints) {
+            JsonNode b = base.path(e.nombre());
+            JsonNode a = actual.path(e.nombre());
+            if (b.isMissingNode()) continue;
+            System.out.printf("%-28s %12.1f %12.1f %12.2f %12.2f%n", e.nombre(),
+                    b.path("rps").asDouble(), a.path("rps").asDouble(),
+                    b.path("p99").asDouble(), a.path("p99").asDouble());
+        }
+    }
+
+    /** Latencias en microsegundos; el volumen de una prueba cabe de sobra en memoria. */
+    private static class Medicion {
+        private final ConcurrentLinkedQueue<Long> latencias = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errores = new AtomicLong();
+
+        void registrar(long nanos) {
+            latencias.add(nanos / 1_000);
+        }
+
+        ObjectNode resumen(long duracionNanos) {
+            long[] v = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+            ObjectNode n = JSON.createObjectNode();
+            n.put("ok", v.length);
+            n.put("errores", errores.get());
+            n.put("rps", v.length / (duracionNanos / 1e9));
+            n.put("p50", percentil(v, 50));
+            n.put("p90", percentil(v, 90));
+            n.put("p99", percentil(v, 99));
+            n.put("max", v.length == 0 ? 0 : v[v.length - 1] / 1_000.0);
+            return n;
+        }
+
+        private static double percentil(long[] v, double p) {
+            if (v.length == 0) return 0;
+            int i = (int) Math.ceil(p / 100.0 * v.length) - 1;
+            return v[Math.max(0, Math.min(i, v.length - 1))] / 1_000.0;
+        }
+    }
+}
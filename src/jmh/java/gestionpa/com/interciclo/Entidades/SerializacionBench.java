@@ -0,0 +1,85 @@
+package gestionpa.com.interciclo.Entidades;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de listados de entidades tal como los devuelven los GET de colección.
+ * El ObjectMapper se construye con Jackson2ObjectMapperBuilder (mismos módulos que Spring MVC)
+ * y se escribe a un stream nulo para medir sólo Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBench {
+
+    @Param({"10", "1000"})
+    public int filas;
+
+    private ObjectWriter writer;
+    private List<Proyecto> proyectos;
+    private List<Tutor> tutores;
+    private List<Estudiante> estudiantes;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+        TipoUsuario rolTutor = new TipoUsuario(2L, "TUTOR", "Docente tutor", 0);
+        TipoUsuario rolEstudiante = new TipoUsuario(3L, "ESTUDIANTE", "Estudiante", 0);
+        LocalDateTime ahora = LocalDateTime.of(2025, 3, 1, 10, 30);
+
+        tutores = new ArrayList<>(filas);
+        estudiantes = new ArrayList<>(filas);
+        proyectos = new ArrayList<>(filas);
+        for (long i = 1; i <= filas; i++) {
+            Tutor t = Tutor.builder().id(i).nombre("Tutor" + i).apellido("Apellido" + i)
+                    .email("tutor" + i + "@uni.edu").username("tutor" + i).password("$2a$10$x")
+                    .tituloAcademico("PhD").departamento("Computación").tipoUsuario(rolTutor)
+                    .creadoEn(ahora).actualizadoEn(ahora).build();
+            Estudiante e = Estudiante.builder().id(i).nombre("Estudiante" + i).apellido("Apellido" + i)
+                    .email("est" + i + "@uni.edu").username("est" + i).password("$2a$10$x")
+                    .codigo("E-" + i).carrera("Sistemas").ciclo("7").tipoUsuario(rolEstudiante)
+                    .creadoEn(ahora).actualizadoEn(ahora).build();
+            tutores.add(t);
+            estudiantes.add(e);
+            proyectos.add(Proyecto.builder().id(i).codigo("PRJ-" + i)
+                    .titulo("Sistema de gestión académica " + i)
+                    .resumen("Plataforma web para la gestión de proyectos de titulación y su seguimiento.")
+                    .objetivos("Automatizar el registro, revisión y calificación de proyectos.")
+                    .areaTematica("Ingeniería de software").palabrasClave("gestión, web, spring")
+                    .fechaInicio(LocalDate.of(2025, 3, 1)).fechaFin(LocalDate.of(2025, 8, 1))
+                    .estado(EstadoProyecto.EN_REVISION).calificacionFinal(new BigDecimal("87.50"))
+                    .urlRepositorio("https://git.example.edu/prj-" + i)
+                    .tutor(t).estudiante(e).creadoEn(ahora).actualizadoEn(ahora).build());
+        }
+    }
+
+    @Benchmark
+    public void proyectos() throws Exception {
+        writer.writeValue(OutputStream.nullOutputStream(), proyectos);
+    }
+
+    @Benchmark
+    public void tutores() throws Exception {
+        writer.writeValue(OutputStream.nullOutputStream(), tutores);
+    }
+
+    @Benchmark
+    public void estudiantes() throws Exception {
+        writer.writeValue(OutputStream.nullOutputStream(), estudiantes);
+    }
+}
@@ -0,0 +1,59 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import gestionpa.com.interciclo.Servicios.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de JWTFilter por petición con y sin TokenCache, y con authorities desde los claims
+ * (sinEstado) o cargando el usuario. El UserDetailsService es en memoria: en producción
+ * conCache=false y sinEstado=false suma además la consulta del tutor a PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTFilterBench {
+
+    @Param({"true", "false"})
+    public boolean conCache;
+
+    @Param({"true", "false"})
+    public boolean sinEstado;
+
+    private JWTFilter filtro;
+    private String token;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setup() {
+        JwtService jwtService = new JwtService();
+        TokenCache cache = new TokenCache(conCache ? 10_000 : 0);
+        RevocacionTokens revocacion = new RevocacionTokens(cache);
+        token = jwtService.generateToken("bench", "TUTOR", revocacion.generacion("bench"));
+        UserDetails usuario = User.withUsername("bench").password("x").roles("TUTOR").build();
+        UserDetailsService uds = username -> usuario;
+        filtro = new JWTFilter(jwtService, uds, cache, revocacion, new SimpleMeterRegistry(), sinEstado);
+    }
+
+    @Benchmark
+    public void filtrar(Blackhole bh) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/proyectos");
+        req.addHeader("Authorization", "Bearer " + token);
+        filtro.doFilter(req, new MockHttpServletResponse(), chain);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
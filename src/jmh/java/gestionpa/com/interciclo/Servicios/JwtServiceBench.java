@@ -0,0 +1,39 @@
+package gestionpa.com.interciclo.Servicios;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Emisión y verificación de JWT (HMAC-SHA256) sin caché de por medio. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBench {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        token = jwtService.generateToken("bench", "TUTOR");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("bench", "TUTOR");
+    }
+
+    @Benchmark
+    public boolean validarToken() {
+        return jwtService.validarToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+}
@@ -0,0 +1,48 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.TipoUsuario;
+import gestionpa.com.interciclo.Entidades.Tutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers de Normalizacion que corren en cada alta/actualización de tutor y estudiante.
+ * tutor/estudiante incluyen construir la entidad con espacios sobrantes (normalizar una ya
+ * normalizada no asigna nada y mediría otro camino).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizacionBench {
+
+    @Benchmark
+    public String rol() {
+        return Normalizacion.rol("  tutor academico ");
+    }
+
+    @Benchmark
+    public Tutor tutor() {
+        Tutor tutor = Tutor.builder()
+                .nombre("  María ").apellido(" Pérez  ").email(" mperez@uni.edu ").username(" mperez ")
+                .tituloAcademico(" PhD ").departamento(" Computación ")
+                .tipoUsuario(new TipoUsuario(null, " tutor ", null, 0))
+                .build();
+        Normalizacion.tutor(tutor);
+        return tutor;
+    }
+
+    @Benchmark
+    public Estudiante estudiante() {
+        Estudiante estudiante = Estudiante.builder()
+                .nombre("  Ana ").apellido(" Ruiz  ").email(" aruiz@uni.edu ").username(" aruiz ")
+                .codigo(" E-0001 ").carrera(" Sistemas ").ciclo(" 7 ")
+                .tipoUsuario(new TipoUsuario(null, " estudiante ", null, 0))
+                .build();
+        Normalizacion.estudiante(estudiante);
+        return estudiante;
+    }
+}
@@ -0,0 +1,153 @@
+package gestionpa.com.interciclo.Servicios;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.Proyecto;
+import gestionpa.com.interciclo.Entidades.Tutor;
+import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
+import gestionpa.com.interciclo.Repositorios.ProyectoRepositorio;
+import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * ProyectoServicio.patch sin BD: los repositorios son proxies en memoria, así que se mide
+ * la lectura del cuerpo y la conversión de valores. legadoDesdeJson es una copia congelada del
+ * PATCH anterior (JSON -> Map con @RequestBody y luego containsKey/get por campo) para comparar
+ * contra el aplicador por tabla, que lee el cuerpo en streaming.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBench {
+
+    static final String PARCIAL = """
+            {"titulo":"Nuevo título","estado":"APROBADO","calificacionFinal":92.5}""";
+    static final String COMPLETO = """
+            {"codigo":"PRJ-1","titulo":"Nuevo título","resumen":"Resumen","objetivos":"Objetivos",
+             "areaTematica":"Software","palabrasClave":"a, b, c","fechaInicio":"2025-03-01",
+             "fechaFin":"2025-08-01","estado":"APROBADO","calificacionFinal":92.5,
+             "urlRepositorio":"https://git.example.edu/p1","urlDocumento":"https://docs.example.edu/p1",
+             "tutorId":1,"estudianteId":1}""";
+
+    @Param({"parcial", "completo"})
+    public String cuerpo;
+
+    ObjectMapper mapper;
+    ProyectoServicio servicio;
+    byte[] json;
+    Proyecto proyecto;
+    TutorRepositorio tutores;
+    EstudianteRepositorio estudiantes;
+    ProyectoRepositorio proyectos;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = new ObjectMapper();
+        Tutor tutor = Tutor.builder().id(1L).username("t1").build();
+        Estudiante estudiante = Estudiante.builder().id(1L).username("e1").build();
+        proyecto = Proyecto.builder().id(1L).codigo("PRJ-1").titulo("Título")
+                .estado(EstadoProyecto.EN_REVISION).tutor(tutor).estudiante(estudiante).build();
+
+        proyectos = simulado(ProyectoRepositorio.class, Map.of(
+                "findById", Optional.of(proyecto),
+                "findByCodigo", Optional.empty(),
+                "existsByEstudianteId", false));
+        tutores = simulado(TutorRepositorio.class, Map.of(
+                "findById", Optional.of(tutor),
+                "existsById", true));
+        estudiantes = simulado(EstudianteRepositorio.class, Map.of(
+                "findById", Optional.of(estudiante),
+                "existsById", true));
+        servicio = new ProyectoServicio(proyectos, tutores, estudiantes, null, mapper, evento -> { }, null, null);
+
+        json = ("parcial".equals(cuerpo) ? PARCIAL : COMPLETO).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Proyecto aplicador() {
+        return servicio.patch(1L, new ByteArrayInputStream(json), false, null);
+    }
+
+    @Benchmark
+    public Proyecto legadoDesdeJson() throws Exception {
+        Map<String, Object> cambios = mapper.readValue(json, new TypeReference<Map<String, Object>>() { });
+        return patchLegado(proyecto, cambios);
+    }
+
+    /* ===================== Copia congelada del PATCH basado en Map ===================== */
+
+    private Proyecto patchLegado(Proyecto db, Map<String, Object> cambios) {
+        putIfString(cambios, "codigo", db::setCodigo);
+        putIfString(cambios, "titulo", db::setTitulo);
+        putIfString(cambios, "resumen", db::setResumen);
+        putIfString(cambios, "objetivos", db::setObjetivos);
+        putIfString(cambios, "areaTematica", db::setAreaTematica);
+        putIfString(cambios, "palabrasClave", db::setPalabrasClave);
+
+        if (cambios.containsKey("fechaInicio") && cambios.get("fechaInicio") != null) {
+            db.setFechaInicio(LocalDate.parse(String.valueOf(cambios.get("fechaInicio"))));
+        }
+        if (cambios.containsKey("fechaFin") && cambios.get("fechaFin") != null) {
+            db.setFechaFin(LocalDate.parse(String.valueOf(cambios.get("fechaFin"))));
+        }
+        if (cambios.containsKey("estado") && cambios.get("estado") != null) {
+            db.setEstado(EstadoProyecto.valueOf(String.valueOf(cambios.get("estado"))));
+        }
+        if (cambios.containsKey("calificacionFinal") && cambios.get("calificacionFinal") != null) {
+            Object v = cambios.get("calificacionFinal");
+            db.setCalificacionFinal(v instanceof BigDecimal b ? b : new BigDecimal(String.valueOf(v)));
+        }
+        putIfString(cambios, "urlRepositorio", db::setUrlRepositorio);
+        putIfString(cambios, "urlDocumento", db::setUrlDocumento);
+
+        if (cambios.containsKey("tutorId") && cambios.get("tutorId") != null) {
+            Long tid = toLong(cambios.get("tutorId"));
+            if (!tutores.existsById(tid)) throw new IllegalStateException("Tutor inválido");
+            db.setTutor(tutores.findById(tid).orElseThrow());
+        }
+        if (cambios.containsKey("estudianteId") && cambios.get("estudianteId") != null) {
+            Long eid = toLong(cambios.get("estudianteId"));
+            if (!estudiantes.existsById(eid)) throw new IllegalStateException("Estudiante inválido");
+            if (!eid.equals(db.getEstudiante().getId()) && proyectos.existsByEstudianteId(eid)) {
+                throw new IllegalStateException("Ese estudiante ya tiene un proyecto");
+            }
+            db.setEstudiante(estudiantes.findById(eid).orElseThrow());
+        }
+        return db;
+    }
+
+    private static void putIfString(Map<String, Object> map, String key, Consumer<String> setter) {
+        if (map.containsKey(key) && map.get(key) != null) setter.accept(String.valueOf(map.get(key)));
+    }
+
+    private static Long toLong(Object v) {
+        if (v instanceof Number n) return n.longValue();
+        return Long.valueOf(String.valueOf(v));
+    }
+
+    /** Repositorio en memoria: responde por nombre de método; lo no previsto falla. */
+    @SuppressWarnings("unchecked")
+    static <R> R simulado(Class<R> tipo, Map<String, Object> respuestas) {
+        return (R) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            if (respuestas.containsKey(metodo.getName())) return respuestas.get(metodo.getName());
+            if (metodo.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (metodo.getName().equals("equals")) return proxy == args[0];
+            throw new UnsupportedOperationException(tipo.getSimpleName() + "." + metodo.getName());
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package gestionpa.com.interciclo.Config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+ * ContadorSqlFiltro lo reinicia al empezar cada petición y lee el total al terminar.
+ * Las consultas por JdbcTemplate no pasan por Hibernate y no se cuentan.
+ * Guarda también la última sentencia, para inspeccionar (EXPLAIN) el SQL que generan los repositorios.
+ */
+public class ContadorSql implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CUENTA = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<String> ULTIMA = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        CUENTA.get()[0]++;
+        ULTIMA.set(sql);
+        return sql;
+    }
+
+    public static void reiniciar() {
+        CUENTA.get()[0] = 0;
+    }
+
+    public static int actual() {
+        return CUENTA.get()[0];
+    }
+
+    public static String ultima() {
+        return ULTIMA.get();
+    }
+
+    public static void limpiar() {
+        CUENTA.remove();
+        ULTIMA.remove();
+    }
+}
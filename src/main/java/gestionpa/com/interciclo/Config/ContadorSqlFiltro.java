@@ -0,0 +1,160 @@
+package gestionpa.com.interciclo.Config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Sentencias SQL por petición: se registran en app.sql.por-peticion (etiqueta uri = patrón del endpoint)
+ * y, con app.metricas.cabecera-sql=true (desarrollo), se devuelven en la cabecera X-SQL-Count
+ * para detectar N+1 sin mirar los logs. En ese modo el cuerpo se retiene hasta el final de la cadena,
+ * así la cabecera incluye también las cargas perezosas que dispara la serialización JSON.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ContadorSqlFiltro extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-SQL-Count";
+
+    /* Sentencias del despacho inicial de una petición asíncrona, para sumarlas al terminar. */
+    private static final String ATRIBUTO_TOTAL = ContadorSqlFiltro.class.getName() + ".TOTAL";
+
+    private final MeterRegistry registry;
+    private final boolean cabecera;
+
+    public ContadorSqlFiltro(MeterRegistry registry,
+                             @Value("${app.metricas.cabecera-sql:false}") boolean cabecera) {
+        this.registry = registry;
+        this.cabecera = cabecera;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // con la cabecera, el cuerpo de un Mono/Flux se escribe en el despacho asíncrono y hay que volcarlo ahí
+        return !cabecera;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean despachoAsincrono = isAsyncDispatch(request);
+        HttpServletResponse destino = cabecera && !despachoAsincrono ? new CuerpoRetenido(response) : response;
+        int total;
+        ContadorSql.reiniciar();
+        try {
+            chain.doFilter(request, destino);
+        } finally {
+            total = ContadorSql.actual();
+            if (!despachoAsincrono) registrar(request, total);
+            ContadorSql.limpiar();
+        }
+        if (!cabecera) return;
+
+        if (despachoAsincrono && request.getAttribute(ATRIBUTO_TOTAL) instanceof Integer previas) total += previas;
+        if (isAsyncStarted(request)) {
+            request.setAttribute(ATRIBUTO_TOTAL, total);
+            return;
+        }
+        CuerpoRetenido retenido = WebUtils.getNativeResponse(destino, CuerpoRetenido.class);
+        if (retenido != null) retenido.volcar(total);
+    }
+
+    private void registrar(HttpServletRequest request, int total) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+        DistributionSummary.builder("app.sql.por-peticion")
+                .description("Sentencias SQL ejecutadas por Hibernate en una petición")
+                .tag("uri", uri)
+                .register(registry)
+                .record(total);
+        log.debug("{} {} -> {} sentencias SQL", request.getMethod(), uri, total);
+    }
+
+    /**
+     * Retiene el cuerpo para poder poner la cabecera después de serializar. Las respuestas en flujo
+     * (SSE, NDJSON) no se retienen: en cuanto declaran su Content-Type se escriben directas y sin cabecera.
+     */
+    private static final class CuerpoRetenido extends ContentCachingResponseWrapper {
+
+        private boolean directo;
+
+        CuerpoRetenido(HttpServletResponse response) {
+            super(response);
+        }
+
+        void volcar(int total) throws IOException {
+            if (directo) return;
+            if (!isCommitted()) setIntHeader(CABECERA, total);
+            copyBodyToResponse();
+        }
+
+        @Override
+        public void setContentType(String tipo) {
+            super.setContentType(tipo);
+            if (esFlujo(tipo)) pasarDirecto();
+        }
+
+        @Override
+        public void setHeader(String nombre, String valor) {
+            super.setHeader(nombre, valor);
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(nombre) && esFlujo(valor)) pasarDirecto();
+        }
+
+        @Override
+        public void addHeader(String nombre, String valor) {
+            super.addHeader(nombre, valor);
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(nombre) && esFlujo(valor)) pasarDirecto();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return directo ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return directo ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (directo) getResponse().flushBuffer();
+            else super.flushBuffer();
+        }
+
+        private void pasarDirecto() {
+            if (directo) return;
+            directo = true;
+            try {
+                copyBodyToResponse();
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo volcar el cuerpo retenido", e);
+            }
+        }
+
+        private static boolean esFlujo(String tipo) {
+            if (tipo == null) return false;
+            String t = tipo.toLowerCase();
+            return t.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE) || t.startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package gestionpa.com.interciclo.Config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Elige la primaria o la réplica al pedir la conexión: las transacciones readOnly van a la réplica,
+ * el resto a la primaria. Debe ir detrás de un LazyConnectionDataSourceProxy para que la conexión se
+ * pida cuando la transacción ya está marcada como readOnly (ver ReplicaConfig).
+ *
+ * Read-your-writes: si la petición HTTP ya escribió en la primaria, sus lecturas posteriores también
+ * van a la primaria (la réplica podría no tener aún esos cambios). Entre peticiones distintas no se
+ * garantiza: un GET justo después de un POST puede ver la réplica con retraso.
+ */
+public class EnrutadorDataSource extends AbstractRoutingDataSource {
+
+    public enum Destino { PRIMARIA, REPLICA }
+
+    static final String ATRIBUTO_ESCRIBIO = EnrutadorDataSource.class.getName() + ".escribio";
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (peticion != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                peticion.setAttribute(ATRIBUTO_ESCRIBIO, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Destino.PRIMARIA;
+        }
+        if (peticion != null && peticion.getAttribute(ATRIBUTO_ESCRIBIO, RequestAttributes.SCOPE_REQUEST) != null) {
+            return Destino.PRIMARIA;
+        }
+        return Destino.REPLICA;
+    }
+}
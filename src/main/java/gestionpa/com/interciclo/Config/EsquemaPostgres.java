@@ -0,0 +1,161 @@
+package gestionpa.com.interciclo.Config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * DDL específico de PostgreSQL que ddl-auto=update no sabe generar (columnas generadas, índices GIN,
+ * paso de IDENTITY a secuencias...).
+ * Todas las sentencias son idempotentes y se ejecutan al arrancar, después de que Hibernate
+ * actualice el esquema (por eso depende del EntityManagerFactory). En otros motores no hace nada.
+ */
+@Slf4j
+@Component
+public class EsquemaPostgres {
+
+    private static final List<String> TABLAS_CON_SECUENCIA = List.of("tipo_usuario", "tutor", "estudiante", "proyecto");
+
+    // Email y username únicos sin distinguir mayúsculas, con la misma expresión upper() que generan
+    // los métodos IgnoreCase de los repositorios (un índice sobre la columna no sirve para upper(col))
+    private record UnicoSinMayusculas(String indice, String tabla, String columna) {
+        String sql() {
+            return "CREATE UNIQUE INDEX IF NOT EXISTS " + indice + " ON " + tabla + " (upper(" + columna + "))";
+        }
+    }
+
+    private static final List<UnicoSinMayusculas> UNICOS_SIN_MAYUSCULAS = List.of(
+            new UnicoSinMayusculas("uk_tutor_email_ci", "tutor", "email"),
+            new UnicoSinMayusculas("uk_tutor_username_ci", "tutor", "username"),
+            new UnicoSinMayusculas("uk_estudiante_email_ci", "estudiante", "email"),
+            new UnicoSinMayusculas("uk_estudiante_username_ci", "estudiante", "username"));
+
+    private static final List<String> SENTENCIAS = List.of(
+            // Búsqueda de texto completo en proyectos: título > palabras clave > resumen > objetivos
+            "ALTER TABLE proyecto ADD COLUMN IF NOT EXISTS busqueda tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('spanish', coalesce(titulo, '')), 'A') || "
+                    + "setweight(to_tsvector('spanish', coalesce(palabras_clave, '')), 'B') || "
+                    + "setweight(to_tsvector('spanish', coalesce(resumen, '')), 'C') || "
+                    + "setweight(to_tsvector('spanish', coalesce(objetivos, '')), 'D')) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_proyecto_busqueda ON proyecto USING GIN (busqueda)",
+            // Esquemas creados cuando estudiante_id llevaba además unique = true tienen una UNIQUE sin nombre
+            // repetida: si salta ella, el 409 no llega a traducirse como uk_proyecto_estudiante
+            "DO $$ DECLARE c text; BEGIN "
+                    + "FOR c IN SELECT con.conname FROM pg_constraint con "
+                    + "JOIN pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = con.conkey[1] "
+                    + "WHERE con.conrelid = 'proyecto'::regclass AND con.contype = 'u' "
+                    + "AND cardinality(con.conkey) = 1 AND a.attname = 'estudiante_id' "
+                    + "AND con.conname <> 'uk_proyecto_estudiante' "
+                    + "LOOP EXECUTE format('ALTER TABLE proyecto DROP CONSTRAINT %I', c); END LOOP; END $$",
+            // Prefijo sin mayúsculas (upper(apellido) LIKE 'X%') con cualquier collation
+            "CREATE INDEX IF NOT EXISTS idx_tutor_apellido_ci ON tutor (upper(apellido) text_pattern_ops)",
+            // Autocompletado por nombre (operador <% de pg_trgm) sin distinguir acentos: "maria" encuentra "María".
+            // unaccent() no es IMMUTABLE, así que no puede ir en una columna generada; sin_acentos fija el
+            // diccionario y lo es. La columna guarda el texto ya normalizado para que el recheck del índice
+            // no llame a unaccent fila a fila.
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE EXTENSION IF NOT EXISTS unaccent",
+            "CREATE OR REPLACE FUNCTION sin_acentos(text) RETURNS text LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT "
+                    + "AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$",
+            "ALTER TABLE tutor ADD COLUMN IF NOT EXISTS nombre_busqueda text "
+                    + "GENERATED ALWAYS AS (sin_acentos(nombre || ' ' || apellido)) STORED",
+            "ALTER TABLE estudiante ADD COLUMN IF NOT EXISTS nombre_busqueda text "
+                    + "GENERATED ALWAYS AS (sin_acentos(nombre || ' ' || apellido)) STORED",
+            // GiST y no GIN: ordena por distancia (<<->) dentro del índice y para en el LIMIT. Con GIN había que
+            // puntuar y ordenar todas las coincidencias ("mar" son miles). siglen=64 en lugar de 12 descarta más
+            // nodos sin bajar a las hojas; el índice pesa unas tres veces el GIN.
+            "CREATE INDEX IF NOT EXISTS idx_tutor_nombre_gist ON tutor USING GIST (nombre_busqueda gist_trgm_ops(siglen=64))",
+            "CREATE INDEX IF NOT EXISTS idx_estudiante_nombre_gist ON estudiante USING GIST (nombre_busqueda gist_trgm_ops(siglen=64))",
+            "DROP INDEX IF EXISTS idx_tutor_nombre_trgm",
+            "DROP INDEX IF EXISTS idx_estudiante_nombre_trgm"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EsquemaPostgres(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void aplicar() {
+        if (!esPostgres()) {
+            log.debug("Base de datos distinta de PostgreSQL: se omite el DDL adicional");
+            return;
+        }
+        verificarUnicos();
+        List<String> todas = Stream.of(
+                TABLAS_CON_SECUENCIA.stream().flatMap(EsquemaPostgres::migrarASecuencia),
+                UNICOS_SIN_MAYUSCULAS.stream().map(UnicoSinMayusculas::sql),
+                SENTENCIAS.stream()).flatMap(s -> s).toList();
+        for (String sql : todas) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (DataAccessException e) {
+                // No impide arrancar: la funcionalidad que depende de la sentencia quedará degradada
+                log.warn("No se pudo aplicar DDL [{}]: {}", sql, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    /*
+     * Con filas que ya sólo difieren en mayúsculas el CREATE UNIQUE INDEX falla; tratado como el resto del DDL
+     * quedaría en un aviso del log y la aplicación seguiría aceptando duplicados. Aquí no se degrada:
+     * el arranque se detiene con las claves repetidas para resolverlas a mano.
+     */
+    private void verificarUnicos() {
+        List<String> conflictos = new ArrayList<>();
+        for (UnicoSinMayusculas u : UNICOS_SIN_MAYUSCULAS) {
+            if (existeIndice(u.indice())) continue;
+            duplicados(u.tabla(), u.columna()).forEach(d -> conflictos.add(u.tabla() + "." + u.columna() + " " + d));
+        }
+        if (!conflictos.isEmpty()) {
+            throw new IllegalStateException("No se pueden crear los índices únicos sin mayúsculas: hay valores que sólo "
+                    + "difieren en mayúsculas. Corríjalos y vuelva a arrancar: " + String.join("; ", conflictos));
+        }
+    }
+
+    /** Claves upper(columna) repetidas con los ids que las comparten ("ANA@X.COM (ids 3, 17)"), como mucho 20. */
+    List<String> duplicados(String tabla, String columna) {
+        return jdbcTemplate.query("SELECT upper(" + columna + ") AS clave, string_agg(id::text, ', ' ORDER BY id) AS ids "
+                        + "FROM " + tabla + " GROUP BY upper(" + columna + ") HAVING count(*) > 1 ORDER BY 1 LIMIT 20",
+                (rs, i) -> rs.getString("clave") + " (ids " + rs.getString("ids") + ")");
+    }
+
+    private boolean existeIndice(String nombre) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?::text) IS NOT NULL", Boolean.class, nombre));
+    }
+
+    /*
+     * IDENTITY -> secuencia <tabla>_seq con incremento LOTE_JDBC (pooled-lo en Hibernate):
+     * 1) crea la secuencia si ddl-auto no lo hizo,
+     * 2) la adelanta por encima del mayor id sólo si hay filas que no salieron de ella (ids existentes intactos;
+     *    no retrocede ni pisa bloques ya repartidos a otras instancias),
+     * 3) quita IDENTITY y deja nextval como DEFAULT para inserts fuera de Hibernate.
+     */
+    private static Stream<String> migrarASecuencia(String tabla) {
+        String seq = tabla + "_seq";
+        return Stream.of(
+                "CREATE SEQUENCE IF NOT EXISTS " + seq + " START WITH 1 INCREMENT BY " + HibernateConfig.LOTE_JDBC,
+                "SELECT setval('" + seq + "', m.max_id + 1, false) "
+                        + "FROM (SELECT coalesce(max(id), 0) AS max_id FROM " + tabla + ") m, " + seq + " s "
+                        + "WHERE m.max_id >= CASE WHEN s.is_called THEN s.last_value + " + HibernateConfig.LOTE_JDBC
+                        + " ELSE s.last_value END",
+                "ALTER TABLE " + tabla + " ALTER COLUMN id DROP IDENTITY IF EXISTS",
+                "ALTER TABLE " + tabla + " ALTER COLUMN id SET DEFAULT nextval('" + seq + "')",
+                "ALTER SEQUENCE " + seq + " OWNED BY " + tabla + ".id");
+    }
+
+    private boolean esPostgres() {
+        Boolean pg = jdbcTemplate.execute((Connection c) ->
+                c.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql"));
+        return Boolean.TRUE.equals(pg);
+    }
+}
@@ -1,18 +1,36 @@
 package gestionpa.com.interciclo.Config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private record Restriccion(HttpStatus status, String mensaje) {}
+
+    // Restricciones que sustituyen a una consulta previa en el servicio (ver ProyectoServicio.crear)
+    private static final Map<String, Restriccion> RESTRICCIONES = Map.of(
+            "uk_proyecto_codigo", new Restriccion(HttpStatus.CONFLICT, "Código de proyecto duplicado"),
+            "uk_proyecto_estudiante", new Restriccion(HttpStatus.CONFLICT, "Ese estudiante ya tiene un proyecto"),
+            "fk_proyecto_tutor", new Restriccion(HttpStatus.BAD_REQUEST, "Tutor inválido"),
+            "fk_proyecto_estudiante", new Restriccion(HttpStatus.BAD_REQUEST, "Estudiante inválido"));
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
         return error(HttpStatus.NOT_FOUND, ex.getMessage());
@@ -30,14 +48,72 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Map<String, Object>> handleIntegrity(DataIntegrityViolationException ex) {
+        Restriccion conocida = restriccion(ex);
+        if (conocida != null) return error(conocida.status(), conocida.mensaje());
+        log.warn("Violación de integridad: {}", ex.getMostSpecificCause().getMessage());
         return error(HttpStatus.CONFLICT, "Violación de integridad de datos (unicidad/FK). " + ex.getMostSpecificCause().getMessage());
     }
 
+    // @Version: otra petición modificó la fila entre la lectura y el UPDATE
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleVersion(OptimisticLockingFailureException ex) {
+        return error(HttpStatus.CONFLICT, "El recurso fue modificado por otra petición; vuelva a leerlo");
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<Map<String, Object>> handleAutenticacion(AuthenticationException ex) {
+        return error(HttpStatus.UNAUTHORIZED, "Credenciales inválidas");
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, Object>> handleAcceso(AccessDeniedException ex) {
+        return error(HttpStatus.FORBIDDEN, "Acceso denegado");
+    }
+
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Map<String, Object>> handleTipoContenido(HttpMediaTypeNotSupportedException ex) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).headers(ex.getHeaders())
+                .body(base(HttpStatus.UNSUPPORTED_MEDIA_TYPE, ex.getMessage()));
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleStatus(ResponseStatusException ex) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        if (status.is5xxServerError()) log.error("Error {}: {}", status.value(), ex.getReason(), ex);
+        return ResponseEntity.status(status).headers(ex.getHeaders()).body(base(status, ex.getReason()));
+    }
+
+    /** El cliente cerró la conexión (típico en /api/proyectos/eventos): no hay a quién responder ni nada que registrar. */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClienteDesconectado(AsyncRequestNotUsableException ex) {
+        log.debug("Cliente desconectado: {}", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneral(Exception ex) {
+        log.error("Error no controlado", ex);
         return error(HttpStatus.INTERNAL_SERVER_ERROR, "Error inesperado: " + ex.getMessage());
     }
 
+    /**
+     * Busca el nombre de la restricción en el que extrae Hibernate y en el mensaje del driver
+     * (con H2 el extraído puede llegar recortado o ser el del índice).
+     */
+    private static Restriccion restriccion(DataIntegrityViolationException ex) {
+        StringBuilder texto = new StringBuilder();
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+                texto.append(cve.getConstraintName()).append(' ');
+            }
+        }
+        texto.append(ex.getMostSpecificCause().getMessage());
+        String buscado = texto.toString().toLowerCase();
+        for (Map.Entry<String, Restriccion> e : RESTRICCIONES.entrySet()) {
+            if (buscado.contains(e.getKey())) return e.getValue();
+        }
+        return null;
+    }
+
     private ResponseEntity<Map<String, Object>> error(HttpStatus status, String mensaje) {
         Map<String, Object> body = base(status, mensaje);
         return ResponseEntity.status(status).body(body);
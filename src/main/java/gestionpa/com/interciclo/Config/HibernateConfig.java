@@ -0,0 +1,26 @@
+package gestionpa.com.interciclo.Config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Propiedades de Hibernate que no dependen del entorno (no hay application.properties en el repo). */
+@Configuration
+public class HibernateConfig {
+
+    /** Tamaño de lote JDBC; también es el allocationSize de las secuencias de las entidades. */
+    public static final int LOTE_JDBC = 50;
+
+    // putIfAbsent: spring.jpa.properties.hibernate.* sigue pudiendo sobrescribirlos
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropiedades() {
+        return props -> {
+            props.put("hibernate.session_factory.statement_inspector", new ContadorSql());
+            props.putIfAbsent("hibernate.jdbc.batch_size", LOTE_JDBC);
+            props.putIfAbsent("hibernate.order_inserts", true);
+            props.putIfAbsent("hibernate.order_updates", true);
+            // pooled-lo: nextval da el primer id del bloque, así el DEFAULT nextval de la columna no se solapa
+            props.putIfAbsent("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        };
+    }
+}
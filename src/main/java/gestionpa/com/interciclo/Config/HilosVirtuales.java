@@ -0,0 +1,47 @@
+package gestionpa.com.interciclo.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diagnóstico del modo hilos virtuales (spring.threads.virtual.enabled=true, requiere Java 21).
+ * Con el modo activo Tomcat y las llamadas @Transactional corren en hilos virtuales y deja de haber
+ * un tope de hilos: el límite real pasa a ser el pool de Hikari, así que se muestra su tamaño.
+ * En Java 17 Spring ignora la propiedad sin avisar; aquí se avisa.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class HilosVirtuales {
+
+    // Uno por pool: con réplica de lectura hay dos (primaria y replica)
+    private final ObjectProvider<HikariDataSource> pools;
+
+    public HilosVirtuales(ObjectProvider<HikariDataSource> pools) {
+        this.pools = pools;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void informar() {
+        int java = Runtime.version().feature();
+        if (java < 21) {
+            log.warn("spring.threads.virtual.enabled=true pero la JVM es Java {}: se usan hilos de plataforma", java);
+            return;
+        }
+        log.info("Hilos virtuales activos");
+        pools.orderedStream().forEach(h -> {
+            log.info("Hikari {}: maximumPoolSize={}, connectionTimeout={} ms",
+                    h.getPoolName(), h.getMaximumPoolSize(), h.getConnectionTimeout());
+            if (h.getConnectionTimeout() > 5_000) {
+                // Sin tope de hilos las peticiones que no consiguen conexión se acumulan en Hikari
+                log.warn("connectionTimeout de Hikari {} > 5 s: bajo saturación las peticiones esperarán "
+                        + "en el pool en vez de fallar rápido (spring.datasource.hikari.connection-timeout)", h.getPoolName());
+            }
+        });
+    }
+}
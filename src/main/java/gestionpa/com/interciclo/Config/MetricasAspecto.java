@@ -0,0 +1,51 @@
+package gestionpa.com.interciclo.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers por método público de controladores y servicios (app.controlador / app.servicio,
+ * etiquetas clase, metodo y excepcion). Los repositorios ya los mide Spring Data
+ * (spring.data.repository.invocations) y las peticiones HTTP Spring MVC (http.server.requests).
+ */
+@Aspect
+@Component
+public class MetricasAspecto {
+
+    private final MeterRegistry registry;
+
+    public MetricasAspecto(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * gestionpa.com.interciclo.Controladores..*(..))")
+    public Object controlador(ProceedingJoinPoint pjp) throws Throwable {
+        return medir("app.controlador", pjp);
+    }
+
+    @Around("execution(public * gestionpa.com.interciclo.Servicios..*(..))")
+    public Object servicio(ProceedingJoinPoint pjp) throws Throwable {
+        return medir("app.servicio", pjp);
+    }
+
+    private Object medir(String nombre, ProceedingJoinPoint pjp) throws Throwable {
+        Timer.Sample muestra = Timer.start(registry);
+        String excepcion = "none";
+        try {
+            return pjp.proceed();
+        } catch (Throwable t) {
+            excepcion = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            muestra.stop(Timer.builder(nombre)
+                    .tag("clase", pjp.getSignature().getDeclaringType().getSimpleName())
+                    .tag("metodo", pjp.getSignature().getName())
+                    .tag("excepcion", excepcion)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package gestionpa.com.interciclo.Config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Conexión R2DBC opcional para las lecturas reactivas (/api/rx/proyectos): sólo con app.r2dbc.url.
+ * Es un pool aparte del de Hikari y sólo se usa para leer; las escrituras siguen por JPA.
+ *
+ * La autoconfiguración R2DBC de Spring Boot está excluida (IntercicloApplication): exigiría
+ * spring.r2dbc.url aunque no se use y registraría un R2dbcTransactionManager junto al de JPA.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.r2dbc.url")
+public class R2dbcConfig {
+
+    private ConnectionPool pool;
+
+    // El pool no se publica como bean: con un ConnectionFactory en el contexto Spring Boot deja de crear
+    // el DataSource (DataSourceAutoConfiguration) y JPA se quedaría sin conexión.
+    // Usuario y contraseña por defecto los de spring.datasource (misma base, otro driver).
+    @Bean
+    public DatabaseClient databaseClientR2dbc(DataSourceProperties propiedades,
+                                              @Value("${app.r2dbc.url}") String url,
+                                              @Value("${app.r2dbc.username:}") String usuario,
+                                              @Value("${app.r2dbc.password:}") String clave,
+                                              @Value("${app.r2dbc.pool.max-size:20}") int maximo,
+                                              @Value("${app.r2dbc.pool.espera-maxima-ms:3000}") long esperaMaximaMs) {
+        ConnectionFactoryOptions opciones = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario.isBlank() ? propiedades.determineUsername() : usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, clave.isBlank() ? propiedades.determinePassword() : clave)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opciones))
+                .name("r2dbc")
+                .initialSize(Math.min(2, maximo))
+                .maxSize(maximo)
+                .maxAcquireTime(Duration.ofMillis(esperaMaximaMs)) // saturado falla rápido, como connection-timeout en Hikari
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (pool != null) pool.dispose();
+    }
+}
@@ -0,0 +1,81 @@
+package gestionpa.com.interciclo.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Réplica de lectura opcional: sólo se activa con app.datasource.replica.url. Sin ella el DataSource
+ * es el de Spring Boot y todo va a la primaria.
+ *
+ * Los métodos @Transactional(readOnly = true) de los servicios leen de la réplica; el resto escribe
+ * en la primaria (spring.datasource.*). Cada destino tiene su pool Hikari ("primaria" y "replica").
+ *
+ * Exige spring.jpa.open-in-view=false: con open-in-view el EntityManager de la petición conserva la primera
+ * conexión que obtiene y una escritura posterior (p. ej. la recodificación del hash en el login) iría a la réplica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaria(DataSourceProperties propiedades) {
+        HikariDataSource ds = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primaria");
+        return ds;
+    }
+
+    // Usuario y contraseña por defecto los de la primaria (réplica física con los mismos roles)
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replica(DataSourceProperties propiedades,
+                                    @Value("${app.datasource.replica.url}") String url,
+                                    @Value("${app.datasource.replica.username:}") String usuario,
+                                    @Value("${app.datasource.replica.password:}") String clave) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl(url);
+        ds.setUsername(usuario.isBlank() ? propiedades.determineUsername() : usuario);
+        ds.setPassword(clave.isBlank() ? propiedades.determinePassword() : clave);
+        ds.setDriverClassName(propiedades.determineDriverClassName());
+        ds.setReadOnly(true);
+        ds.setPoolName("replica");
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaria") DataSource primaria,
+                                 @Qualifier("replica") DataSource replica,
+                                 @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("app.datasource.replica.url requiere spring.jpa.open-in-view=false: "
+                    + "con open-in-view cada petición fija su primera conexión y podría escribir en la réplica");
+        }
+        EnrutadorDataSource enrutador = new EnrutadorDataSource();
+        enrutador.setTargetDataSources(Map.of(
+                EnrutadorDataSource.Destino.PRIMARIA, primaria,
+                EnrutadorDataSource.Destino.REPLICA, replica));
+        enrutador.setDefaultTargetDataSource(primaria);
+        enrutador.afterPropertiesSet();
+        // Perezoso: la conexión se pide en la primera sentencia, cuando ya se sabe si la transacción es readOnly.
+        // Con los valores por defecto fijados el proxy no abre una conexión al arrancar para averiguarlos.
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(enrutador);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+}
@@ -6,8 +6,12 @@ import gestionpa.com.interciclo.Entidades.TipoUsuario;
 import gestionpa.com.interciclo.Entidades.Tutor;
 import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
 import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import gestionpa.com.interciclo.Seguridad.LimitadorLogin;
+import gestionpa.com.interciclo.Seguridad.RevocacionTokens;
 import gestionpa.com.interciclo.Servicios.JwtService;
+import gestionpa.com.interciclo.Servicios.TipoUsuarioRegistro;
 import gestionpa.com.interciclo.Servicios.TutorServicio;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -29,18 +33,26 @@ public class AuthControlador {
     private final TutorServicio tutorServicio;
     private final TutorRepositorio tutorRepositorio;
     private final TipoUsuarioRepositorio tipoUsuarioRepositorio;
+    private final TipoUsuarioRegistro tipoUsuarioRegistro;
+    private final RevocacionTokens revocacion;
+    private final LimitadorLogin limitador;
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest request, HttpServletRequest http) {
+        // 429 antes de cualquier BCrypt si el username o la IP agotaron sus intentos
+        limitador.intento(request.getUsername(), http.getRemoteAddr());
+        // Antes de comprobar credenciales: una revocación posterior a esa lectura deja el token sin validez
+        long generacion = revocacion.generacion(request.getUsername());
         Authentication auth = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
         );
 
         String username = auth.getName();
+        limitador.exito(username);
         Tutor tutor = tutorServicio.obtenerPorUsername(username);
         String rol = (tutor.getTipoUsuario() != null) ? tutor.getTipoUsuario().getNombre() : "USER";
 
-        String token = jwtService.generateToken(username, rol);
+        String token = jwtService.generateToken(username, rol, generacion);
         return ResponseEntity.ok(new JwtResponse(token, "Bearer", username, rol));
     }
 
@@ -57,7 +69,7 @@ public class AuthControlador {
      */
     @PostMapping("/register-admin")
     public ResponseEntity<?> registerAdmin(@RequestBody(required = false) Map<String, Object> body) {
-        long admins = tutorRepositorio.countByTipoUsuarioNombreIgnoreCase("ADMIN");
+        long admins = tutorRepositorio.countByTipoUsuarioNombre("ADMIN");
         if (admins > 0) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("message", "Ya existe un usuario ADMIN"));
@@ -69,18 +81,19 @@ public class AuthControlador {
         String nombre   = (body != null && body.get("nombre") != null)   ? String.valueOf(body.get("nombre")).trim()   : "ADMIN";
         String apellido = (body != null && body.get("apellido") != null) ? String.valueOf(body.get("apellido")).trim() : "ADMIN";
 
-        if (tutorRepositorio.existsByEmail(email)) {
+        if (tutorRepositorio.existsByEmailIgnoreCase(email)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Email ya existe: " + email));
         }
-        if (tutorRepositorio.existsByUsername(username)) {
+        if (tutorRepositorio.existsByUsernameIgnoreCase(username)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Username ya existe: " + username));
         }
 
-        TipoUsuario adminRole = tipoUsuarioRepositorio.findByNombre("ADMIN")
+        TipoUsuario adminRole = tipoUsuarioRegistro.porNombre("ADMIN")
                 .orElseGet(() -> {
                     TipoUsuario t = new TipoUsuario();
                     t.setNombre("ADMIN");
                     t.setDescripcion("Administrador del sistema");
+                    tipoUsuarioRegistro.invalidar();
                     return tipoUsuarioRepositorio.save(t);
                 });
 
@@ -0,0 +1,64 @@
+package gestionpa.com.interciclo.Controladores;
+
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.ZoneId;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * GET condicionales (304) y ETag/Last-Modified en las respuestas de los controladores CRUD.
+ * La comparación y las cabeceras las resuelve WebRequest.checkNotModified (If-None-Match tiene
+ * prioridad sobre If-Modified-Since); aquí sólo se decide qué se consulta y cuándo se carga el cuerpo.
+ */
+final class Condicional {
+
+    private Condicional() {}
+
+    /**
+     * GET /{id}. Si el cliente manda If-None-Match o If-Modified-Since se compara primero contra
+     * {@code version} (una consulta por PK) y la entidad sólo se carga si cambió. Si no los manda,
+     * se carga directamente y las cabeceras salen de la propia entidad.
+     */
+    static <T> ResponseEntity<T> recurso(WebRequest request, Supplier<VersionRecurso> version,
+                                         Supplier<T> cargar, Function<T, VersionRecurso> versionDe) {
+        if (esCondicional(request)) {
+            if (noModificado(request, version.get())) return null; // 304 ya preparado
+            return ResponseEntity.ok(cargar.get());
+        }
+        T cuerpo = cargar.get();
+        noModificado(request, versionDe.apply(cuerpo)); // sin condiciones sólo añade ETag/Last-Modified
+        return ResponseEntity.ok(cuerpo);
+    }
+
+    /**
+     * GET de colección: ETag a partir de un agregado. Sin Last-Modified: max(actualizadoEn) no ve
+     * los borrados, así que If-Modified-Since daría 304 con filas de menos.
+     */
+    static <T> ResponseEntity<T> coleccion(WebRequest request, VersionColeccion version, Supplier<T> cargar) {
+        if (request.checkNotModified(version.etag())) return null;
+        return ResponseEntity.ok(cargar.get());
+    }
+
+    /** Respuesta de PUT/PATCH con la ETag nueva, para encadenar el siguiente If-Match sin otro GET. */
+    static <T> ResponseEntity<T> conVersion(VersionRecurso v, T cuerpo) {
+        ResponseEntity.BodyBuilder r = ResponseEntity.ok().eTag(v.etag());
+        if (v.getActualizadoEn() != null) r.lastModified(v.getActualizadoEn().atZone(ZoneId.systemDefault()));
+        return r.body(cuerpo);
+    }
+
+    private static boolean esCondicional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static boolean noModificado(WebRequest request, VersionRecurso v) {
+        if (v.getActualizadoEn() == null) return request.checkNotModified(v.etag());
+        long milis = v.getActualizadoEn().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(v.etag(), milis);
+    }
+}
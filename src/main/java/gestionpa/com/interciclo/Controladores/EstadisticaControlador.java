@@ -0,0 +1,24 @@
+package gestionpa.com.interciclo.Controladores;
+
+import gestionpa.com.interciclo.DTO.Estadisticas;
+import gestionpa.com.interciclo.Servicios.EstadisticaServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/estadisticas")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('TUTOR','ADMIN')")
+public class EstadisticaControlador {
+
+    private final EstadisticaServicio estadisticaServicio;
+
+    @GetMapping
+    public ResponseEntity<Estadisticas> obtener() {
+        return ResponseEntity.ok(estadisticaServicio.obtener());
+    }
+}
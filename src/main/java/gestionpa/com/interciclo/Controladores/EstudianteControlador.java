@@ -1,17 +1,28 @@
 package gestionpa.com.interciclo.Controladores;
 
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
+import gestionpa.com.interciclo.DTO.ReporteImportacion;
 import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch;
 import gestionpa.com.interciclo.Servicios.EstudianteServicio;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/estudiantes")
@@ -28,24 +39,59 @@ public class EstudianteControlador {
         return ResponseEntity.created(URI.create("/api/estudiantes/" + creado.getId())).body(creado);
     }
 
+    /** Importación masiva: arreglo JSON de estudiantes. Las filas inválidas se devuelven en el reporte. */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReporteImportacion> importar(@RequestBody List<Estudiante> filas) {
+        return ResponseEntity.ok(estudianteServicio.importar(filas));
+    }
+
+    /** Importación masiva desde CSV (UTF-8, con cabecera). */
+    @PostMapping(value = "/batch", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ReporteImportacion> importarCsv(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(estudianteServicio.importarCsv(new InputStreamReader(cuerpo, StandardCharsets.UTF_8)));
+    }
+
+    /** Admite If-None-Match: si la colección no cambió responde 304 sin leer filas. */
     @GetMapping
-    public ResponseEntity<List<Estudiante>> listar() {
-        return ResponseEntity.ok(estudianteServicio.listar());
+    public ResponseEntity<List<Estudiante>> listar(WebRequest request) {
+        return Condicional.coleccion(request, estudianteServicio.versionColeccion(), estudianteServicio::listar);
+    }
+
+    /** Paginación por cursor: {@code ?despuesDe=<siguienteCursor>&tamanio=50} (máx. 500). */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<Estudiante>> listarPagina(@RequestParam(required = false) Long despuesDe,
+                                                   @RequestParam(required = false) Integer tamanio) {
+        return ResponseEntity.ok(estudianteServicio.listarPagina(despuesDe, tamanio));
+    }
+
+    /** Autocompletado por nombre: {@code ?q=garc&limite=10} (máx. 50), los más parecidos primero. */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PersonaSugerencia>> sugerir(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(estudianteServicio.sugerir(q, limite));
     }
 
+    /** Con ETag y Last-Modified; admite If-None-Match / If-Modified-Since (304). */
     @GetMapping("/{id}")
-    public ResponseEntity<Estudiante> obtener(@PathVariable Long id) {
-        return ResponseEntity.ok(estudianteServicio.obtenerPorId(id));
+    public ResponseEntity<Estudiante> obtener(@PathVariable Long id, WebRequest request) {
+        return Condicional.recurso(request, () -> estudianteServicio.version(id),
+                () -> estudianteServicio.obtenerPorId(id), EstudianteServicio::versionDe);
     }
 
+    /** Con If-Match responde 412 si el recurso cambió desde que el cliente lo leyó. */
     @PutMapping("/{id}")
-    public ResponseEntity<Estudiante> actualizar(@PathVariable Long id, @Valid @RequestBody Estudiante e) {
-        return ResponseEntity.ok(estudianteServicio.actualizar(id, e));
+    public ResponseEntity<Estudiante> actualizar(@PathVariable Long id, @Valid @RequestBody Estudiante e,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Estudiante actualizado = estudianteServicio.actualizar(id, e, ifMatch);
+        return Condicional.conVersion(EstudianteServicio.versionDe(actualizado), actualizado);
     }
 
-    @PatchMapping("/{id}")
-    public ResponseEntity<Estudiante> patch(@PathVariable Long id, @RequestBody Map<String, Object> cambios) {
-        return ResponseEntity.ok(estudianteServicio.patch(id, cambios));
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, AplicadorPatch.MERGE_PATCH_JSON})
+    public ResponseEntity<Estudiante> patch(@PathVariable Long id, HttpServletRequest request,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        boolean merge = AplicadorPatch.esMergePatch(request.getContentType());
+        Estudiante actualizado = estudianteServicio.patch(id, request.getInputStream(), merge, ifMatch);
+        return Condicional.conVersion(EstudianteServicio.versionDe(actualizado), actualizado);
     }
 
     @DeleteMapping("/{id}")
@@ -1,17 +1,37 @@
 package gestionpa.com.interciclo.Controladores;
 
+import gestionpa.com.interciclo.DTO.CambioEstadoProyectos;
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.ProyectoCoincidencia;
+import gestionpa.com.interciclo.DTO.ProyectoResumen;
+import gestionpa.com.interciclo.DTO.ReporteCalificaciones;
+import gestionpa.com.interciclo.DTO.ResultadoCambioEstado;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
 import gestionpa.com.interciclo.Entidades.Proyecto;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.Servicios.ProyectoEventosServicio;
 import gestionpa.com.interciclo.Servicios.ProyectoServicio;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/proyectos")
@@ -21,6 +41,7 @@ import java.util.Map;
 public class ProyectoControlador {
 
     private final ProyectoServicio proyectoServicio;
+    private final ProyectoEventosServicio proyectoEventos;
 
     @PostMapping
     public ResponseEntity<Proyecto> crear(@Valid @RequestBody Proyecto p) {
@@ -28,24 +49,90 @@ public class ProyectoControlador {
         return ResponseEntity.created(URI.create("/api/proyectos/" + creado.getId())).body(creado);
     }
 
+    /** Admite If-None-Match: si la colección no cambió responde 304 sin leer filas. */
     @GetMapping
-    public ResponseEntity<List<Proyecto>> listar() {
-        return ResponseEntity.ok(proyectoServicio.listar());
+    public ResponseEntity<List<Proyecto>> listar(WebRequest request) {
+        return Condicional.coleccion(request, proyectoServicio.versionColeccion(), proyectoServicio::listar);
     }
 
+    /** Paginación por cursor: {@code ?despuesDe=<siguienteCursor>&tamanio=50} (máx. 500). */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<Proyecto>> listarPagina(@RequestParam(required = false) Long despuesDe,
+                                                   @RequestParam(required = false) Integer tamanio) {
+        return ResponseEntity.ok(proyectoServicio.listarPagina(despuesDe, tamanio));
+    }
+
+    /** Listado resumido (sin entidades anidadas), filtrable por {@code tutorId} y {@code estado}. */
+    @GetMapping("/resumen")
+    public ResponseEntity<PaginaCursor<ProyectoResumen>> listarResumen(@RequestParam(required = false) Long despuesDe,
+                                                                       @RequestParam(required = false) Integer tamanio,
+                                                                       @RequestParam(required = false) Long tutorId,
+                                                                       @RequestParam(required = false) EstadoProyecto estado) {
+        return ResponseEntity.ok(proyectoServicio.listarResumen(despuesDe, tamanio, tutorId, estado));
+    }
+
+    /** Búsqueda de texto completo con ranking: {@code ?q=gestion academica&limite=20} (máx. 100). */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProyectoCoincidencia>> buscar(@RequestParam String q,
+                                                             @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(proyectoServicio.buscar(q, limite));
+    }
+
+    /** Exporta todos los proyectos como NDJSON, fila a fila y sin cargarlos en memoria. */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportar(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        proyectoServicio.exportarNdjson(response.getOutputStream());
+    }
+
+    /**
+     * Altas, cambios y bajas en text/event-stream, filtrables por {@code tutorId} y {@code estado}.
+     * Con Last-Event-ID reanuda desde ese evento; si ya no está en el buffer llega un evento {@code reinicio}.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProyectoEvento>> eventos(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoId,
+                                                          @RequestParam(required = false) Long tutorId,
+                                                          @RequestParam(required = false) EstadoProyecto estado) {
+        return proyectoEventos.suscribir(idEvento(ultimoId), tutorId, estado);
+    }
+
+    /**
+     * Cambio de estado masivo (p. ej. EN_REVISION -> APROBADO tras el comité): {@code {"estado":"APROBADO","ids":[...]}}
+     * o {@code {"estado":"APROBADO","desde":"EN_REVISION","tutorId":2}}. Máx. 1000 proyectos; un solo UPDATE.
+     */
+    @PostMapping("/estado")
+    public ResponseEntity<ResultadoCambioEstado> cambiarEstado(@Valid @RequestBody CambioEstadoProyectos cambio) {
+        return ResponseEntity.ok(proyectoServicio.cambiarEstado(cambio));
+    }
+
+    /** Calificaciones finales desde CSV (UTF-8, cabecera {@code codigo,calificacionFinal}), leído en streaming. */
+    @PostMapping(value = "/calificaciones", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ReporteCalificaciones> importarCalificaciones(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(proyectoServicio.importarCalificaciones(new InputStreamReader(cuerpo, StandardCharsets.UTF_8)));
+    }
+
+    /** Con ETag y Last-Modified; admite If-None-Match / If-Modified-Since (304). */
     @GetMapping("/{id}")
-    public ResponseEntity<Proyecto> obtener(@PathVariable Long id) {
-        return ResponseEntity.ok(proyectoServicio.obtenerPorId(id));
+    public ResponseEntity<Proyecto> obtener(@PathVariable Long id, WebRequest request) {
+        return Condicional.recurso(request, () -> proyectoServicio.version(id),
+                () -> proyectoServicio.obtenerPorId(id), ProyectoServicio::versionDe);
     }
 
+    /** Con If-Match responde 412 si el recurso cambió desde que el cliente lo leyó. */
     @PutMapping("/{id}")
-    public ResponseEntity<Proyecto> actualizar(@PathVariable Long id, @Valid @RequestBody Proyecto p) {
-        return ResponseEntity.ok(proyectoServicio.actualizar(id, p));
+    public ResponseEntity<Proyecto> actualizar(@PathVariable Long id, @Valid @RequestBody Proyecto p,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Proyecto actualizado = proyectoServicio.actualizar(id, p, ifMatch);
+        return Condicional.conVersion(ProyectoServicio.versionDe(actualizado), actualizado);
     }
 
-    @PatchMapping("/{id}")
-    public ResponseEntity<Proyecto> patch(@PathVariable Long id, @RequestBody Map<String, Object> cambios) {
-        return ResponseEntity.ok(proyectoServicio.patch(id, cambios));
+    /** application/json (null = sin cambio) o application/merge-patch+json (null = borrar). */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, AplicadorPatch.MERGE_PATCH_JSON})
+    public ResponseEntity<Proyecto> patch(@PathVariable Long id, HttpServletRequest request,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        boolean merge = AplicadorPatch.esMergePatch(request.getContentType());
+        Proyecto actualizado = proyectoServicio.patch(id, request.getInputStream(), merge, ifMatch);
+        return Condicional.conVersion(ProyectoServicio.versionDe(actualizado), actualizado);
     }
 
     @DeleteMapping("/{id}")
@@ -53,4 +140,14 @@ public class ProyectoControlador {
         proyectoServicio.eliminar(id);
         return ResponseEntity.noContent().build();
     }
+
+    /** Un Last-Event-ID que no es nuestro (no numérico) se trata como perdido: el cliente recibe {@code reinicio}. */
+    private static Long idEvento(String cabecera) {
+        if (cabecera == null || cabecera.isBlank()) return null;
+        try {
+            return Long.parseLong(cabecera.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package gestionpa.com.interciclo.Controladores;
+
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.ProyectoResumen;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import gestionpa.com.interciclo.Servicios.ProyectoRxServicio;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas reactivas (R2DBC). Devuelve Mono: Spring MVC libera el hilo de Tomcat mientras la consulta
+ * está en curso y escribe la respuesta al completarse. Sólo existe con app.r2dbc.url.
+ */
+@RestController
+@RequestMapping("/api/rx/proyectos")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.r2dbc.url")
+@PreAuthorize("hasAnyRole('TUTOR','ADMIN')")
+public class ProyectoRxControlador {
+
+    private final ProyectoRxServicio proyectoRxServicio;
+
+    /** Mismos parámetros y respuesta que GET /api/proyectos/resumen. */
+    @GetMapping
+    public Mono<PaginaCursor<ProyectoResumen>> listarResumen(@RequestParam(required = false) Long despuesDe,
+                                                             @RequestParam(required = false) Integer tamanio,
+                                                             @RequestParam(required = false) Long tutorId,
+                                                             @RequestParam(required = false) EstadoProyecto estado) {
+        return proyectoRxServicio.listarResumen(despuesDe, tamanio, tutorId, estado);
+    }
+}
@@ -1,15 +1,21 @@
 package gestionpa.com.interciclo.Controladores;
 
 import gestionpa.com.interciclo.Entidades.TipoUsuario;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch;
 import gestionpa.com.interciclo.Servicios.TipoUsuarioServicio;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
@@ -22,20 +28,21 @@ public class TipoUsuarioControlador {
 
     private final TipoUsuarioServicio tipoUsuarioServicio;
 
-    /* Listar y obtener: TUTOR/ADMIN pueden ver */
+    /* Listar y obtener: TUTOR/ADMIN pueden ver (con ETag, admiten If-None-Match) */
     @GetMapping
     @PreAuthorize("hasAnyRole('TUTOR','ADMIN')")
-    public ResponseEntity<List<TipoUsuario>> listar() {
-        return ResponseEntity.ok(tipoUsuarioServicio.listar());
+    public ResponseEntity<List<TipoUsuario>> listar(WebRequest request) {
+        return Condicional.coleccion(request, tipoUsuarioServicio.versionColeccion(), tipoUsuarioServicio::listar);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('TUTOR','ADMIN')")
-    public ResponseEntity<TipoUsuario> obtener(@PathVariable Long id) {
-        return ResponseEntity.ok(tipoUsuarioServicio.obtenerPorId(id));
+    public ResponseEntity<TipoUsuario> obtener(@PathVariable Long id, WebRequest request) {
+        return Condicional.recurso(request, () -> tipoUsuarioServicio.version(id),
+                () -> tipoUsuarioServicio.obtenerPorId(id), TipoUsuarioServicio::versionDe);
     }
 
-    /* Crear/Actualizar/Patch/Eliminar: SOLO ADMIN */
+    /* Crear/Actualizar/Patch/Eliminar: SOLO ADMIN (PUT/PATCH admiten If-Match) */
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> crear(@Valid @RequestBody TipoUsuario t) {
@@ -49,23 +56,23 @@ public class TipoUsuarioControlador {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> actualizar(@PathVariable Long id, @Valid @RequestBody TipoUsuario t) {
+    public ResponseEntity<?> actualizar(@PathVariable Long id, @Valid @RequestBody TipoUsuario t,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (t.getNombre() != null && "ADMIN".equalsIgnoreCase(t.getNombre().trim())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("message", "No se permite asignar el nombre ADMIN a un TipoUsuario"));
         }
-        return ResponseEntity.ok(tipoUsuarioServicio.actualizar(id, t));
+        TipoUsuario actualizado = tipoUsuarioServicio.actualizar(id, t, ifMatch);
+        return Condicional.conVersion(TipoUsuarioServicio.versionDe(actualizado), actualizado);
     }
 
-    @PatchMapping("/{id}")
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, AplicadorPatch.MERGE_PATCH_JSON})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody Map<String, Object> cambios) {
-        Object nombre = cambios.get("nombre");
-        if (nombre != null && "ADMIN".equalsIgnoreCase(String.valueOf(nombre).trim())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("message", "No se permite actualizar el nombre a ADMIN"));
-        }
-        return ResponseEntity.ok(tipoUsuarioServicio.patch(id, cambios));
+    public ResponseEntity<TipoUsuario> patch(@PathVariable Long id, HttpServletRequest request,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        boolean merge = AplicadorPatch.esMergePatch(request.getContentType());
+        TipoUsuario actualizado = tipoUsuarioServicio.patch(id, request.getInputStream(), merge, ifMatch);
+        return Condicional.conVersion(TipoUsuarioServicio.versionDe(actualizado), actualizado);
     }
 
     @DeleteMapping("/{id}")
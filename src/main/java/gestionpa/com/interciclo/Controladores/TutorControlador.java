@@ -1,17 +1,24 @@
 package gestionpa.com.interciclo.Controladores;
 
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
 import gestionpa.com.interciclo.Entidades.Tutor;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch;
 import gestionpa.com.interciclo.Servicios.TutorServicio;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tutores")
@@ -28,24 +35,47 @@ public class TutorControlador {
         return ResponseEntity.created(URI.create("/api/tutores/" + creado.getId())).body(creado);
     }
 
+    /** Admite If-None-Match: si la colección no cambió responde 304 sin leer filas. */
     @GetMapping
-    public ResponseEntity<List<Tutor>> listar() {
-        return ResponseEntity.ok(tutorServicio.listar());
+    public ResponseEntity<List<Tutor>> listar(WebRequest request) {
+        return Condicional.coleccion(request, tutorServicio.versionColeccion(), tutorServicio::listar);
     }
 
+    /** Paginación por cursor: {@code ?despuesDe=<siguienteCursor>&tamanio=50} (máx. 500). */
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaCursor<Tutor>> listarPagina(@RequestParam(required = false) Long despuesDe,
+                                                   @RequestParam(required = false) Integer tamanio) {
+        return ResponseEntity.ok(tutorServicio.listarPagina(despuesDe, tamanio));
+    }
+
+    /** Autocompletado por nombre: {@code ?q=garc&limite=10} (máx. 50), los más parecidos primero. */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<PersonaSugerencia>> sugerir(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(tutorServicio.sugerir(q, limite));
+    }
+
+    /** Con ETag y Last-Modified; admite If-None-Match / If-Modified-Since (304). */
     @GetMapping("/{id}")
-    public ResponseEntity<Tutor> obtener(@PathVariable Long id) {
-        return ResponseEntity.ok(tutorServicio.obtenerPorId(id));
+    public ResponseEntity<Tutor> obtener(@PathVariable Long id, WebRequest request) {
+        return Condicional.recurso(request, () -> tutorServicio.version(id),
+                () -> tutorServicio.obtenerPorId(id), TutorServicio::versionDe);
     }
 
+    /** Con If-Match responde 412 si el recurso cambió desde que el cliente lo leyó. */
     @PutMapping("/{id}")
-    public ResponseEntity<Tutor> actualizar(@PathVariable Long id, @Valid @RequestBody Tutor tutor) {
-        return ResponseEntity.ok(tutorServicio.actualizar(id, tutor));
+    public ResponseEntity<Tutor> actualizar(@PathVariable Long id, @Valid @RequestBody Tutor tutor,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Tutor actualizado = tutorServicio.actualizar(id, tutor, ifMatch);
+        return Condicional.conVersion(TutorServicio.versionDe(actualizado), actualizado);
     }
 
-    @PatchMapping("/{id}")
-    public ResponseEntity<Tutor> patch(@PathVariable Long id, @RequestBody Map<String, Object> cambios) {
-        return ResponseEntity.ok(tutorServicio.patch(id, cambios));
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, AplicadorPatch.MERGE_PATCH_JSON})
+    public ResponseEntity<Tutor> patch(@PathVariable Long id, HttpServletRequest request,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws IOException {
+        boolean merge = AplicadorPatch.esMergePatch(request.getContentType());
+        Tutor actualizado = tutorServicio.patch(id, request.getInputStream(), merge, ifMatch);
+        return Condicional.conVersion(TutorServicio.versionDe(actualizado), actualizado);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,21 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Cuerpo de POST /api/proyectos/estado: los proyectos se eligen por {@code ids} o por filtro
+ * ({@code desde} y, opcional, {@code tutorId}), no por ambos.
+ */
+@Getter @Setter
+public class CambioEstadoProyectos {
+    @NotNull
+    private EstadoProyecto estado;
+    private List<Long> ids;
+    private EstadoProyecto desde;
+    private Long tutorId;
+}
@@ -0,0 +1,36 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Agregados de proyectos calculados en BD (GROUP BY); el tamaño no depende del número de filas. */
+@Getter @AllArgsConstructor
+public class Estadisticas {
+
+    private long totalProyectos;
+    private List<PorEstado> porEstado;
+    private List<PorTutor> porTutor;
+    private List<PorArea> porArea;
+    private Instant generadoEn;
+
+    public interface PorEstado {
+        EstadoProyecto getEstado();
+        Long getTotal();
+    }
+
+    public interface PorTutor {
+        Long getTutorId();
+        String getTutor();
+        Long getTotal();
+    }
+
+    public interface PorArea {
+        String getArea();
+        Long getTotal();
+        Double getPromedioCalificacion(); // sólo sobre proyectos calificados
+    }
+}
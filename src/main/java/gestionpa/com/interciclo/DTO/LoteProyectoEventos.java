@@ -0,0 +1,17 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Varios ProyectoEvento de una misma transacción publicados de una vez (cambio de estado masivo, importación
+ * de calificaciones):
+ * la outbox los guarda en un insert por lotes y los oyentes reaccionan una vez por lote, no por fila.
+ */
+@Getter @AllArgsConstructor
+public class LoteProyectoEventos {
+
+    private List<ProyectoEvento> eventos;
+}
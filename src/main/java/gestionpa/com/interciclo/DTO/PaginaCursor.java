@@ -0,0 +1,40 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginada por cursor (keyset sobre id).
+ * Para pedir la siguiente página se envía {@code despuesDe = siguienteCursor}.
+ */
+@Getter @AllArgsConstructor
+public class PaginaCursor<T> {
+
+    public static final int TAMANIO_DEFECTO = 50;
+    public static final int TAMANIO_MAXIMO = 500;
+
+    private List<T> items;
+    private Long siguienteCursor; // null cuando ya no hay más filas
+    private int tamanio;
+
+    /** Acota el tamaño pedido por el cliente a [1, TAMANIO_MAXIMO]. */
+    public static int normalizaTamanio(Integer tamanio) {
+        if (tamanio == null || tamanio < 1) return TAMANIO_DEFECTO;
+        return Math.min(tamanio, TAMANIO_MAXIMO);
+    }
+
+    /**
+     * Construye la página a partir de {@code tamanio + 1} filas leídas:
+     * la fila extra sólo indica que existe una página siguiente y no se devuelve.
+     */
+    public static <T> PaginaCursor<T> de(List<T> filas, int tamanio, Function<T, Long> id) {
+        if (filas.size() <= tamanio) {
+            return new PaginaCursor<>(filas, null, tamanio);
+        }
+        List<T> items = filas.subList(0, tamanio);
+        return new PaginaCursor<>(items, id.apply(items.get(tamanio - 1)), tamanio);
+    }
+}
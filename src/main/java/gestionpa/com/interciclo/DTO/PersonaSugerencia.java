@@ -0,0 +1,10 @@
+package gestionpa.com.interciclo.DTO;
+
+/** Fila del autocompletado de tutores/estudiantes por nombre, de más a menos parecida. */
+public interface PersonaSugerencia {
+    Long getId();
+    String getNombre();
+    String getApellido();
+    String getUsername();
+    Double getSimilitud();
+}
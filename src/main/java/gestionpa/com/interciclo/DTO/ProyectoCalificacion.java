@@ -0,0 +1,8 @@
+package gestionpa.com.interciclo.DTO;
+
+import java.math.BigDecimal;
+
+/** Para la importación de calificaciones: la actual, para no reescribir las que no cambian. */
+public interface ProyectoCalificacion extends ProyectoEstado {
+    BigDecimal getCalificacionFinal();
+}
@@ -0,0 +1,10 @@
+package gestionpa.com.interciclo.DTO;
+
+/** Fila de resultado de la búsqueda de texto completo, ordenada por relevancia. */
+public interface ProyectoCoincidencia {
+    Long getId();
+    String getCodigo();
+    String getTitulo();
+    String getEstado();
+    Double getRango();
+}
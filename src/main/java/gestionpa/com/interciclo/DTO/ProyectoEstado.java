@@ -0,0 +1,11 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+
+/** Lo que necesita el cambio de estado masivo de cada proyecto: validar la transición y publicar el evento. */
+public interface ProyectoEstado {
+    Long getId();
+    String getCodigo();
+    EstadoProyecto getEstado();
+    Long getTutorId();
+}
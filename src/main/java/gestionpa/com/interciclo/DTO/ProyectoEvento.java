@@ -0,0 +1,26 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Evento de aplicación que ProyectoServicio publica en cada alta, cambio o baja.
+ * Se publica dentro de la transacción: los oyentes que sólo deben reaccionar a cambios
+ * confirmados usan @TransactionalEventListener(AFTER_COMMIT).
+ */
+@Getter @AllArgsConstructor
+public class ProyectoEvento {
+
+    public enum Tipo { CREADO, ACTUALIZADO, ELIMINADO }
+
+    private Tipo tipo;
+    private Long proyectoId;
+    private String codigo;
+    private EstadoProyecto estado;
+    private EstadoProyecto estadoAnterior; // null en CREADO
+    private Long tutorId;
+    private Instant instante;
+}
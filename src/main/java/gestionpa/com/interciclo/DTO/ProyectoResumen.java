@@ -0,0 +1,30 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de lectura de Proyecto con los nombres de tutor y estudiante.
+ * Se construye en una sola consulta con join (ver ProyectoRepositorio), sin cargar entidades.
+ */
+@Getter @AllArgsConstructor
+public class ProyectoResumen {
+    private Long id;
+    private String codigo;
+    private String titulo;
+    private EstadoProyecto estado;
+    private String areaTematica;
+    private BigDecimal calificacionFinal;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private Long tutorId;
+    private String tutorNombre;
+    private Long estudianteId;
+    private String estudianteNombre;
+    private LocalDateTime actualizadoEn;
+}
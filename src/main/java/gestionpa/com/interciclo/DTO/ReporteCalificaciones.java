@@ -0,0 +1,15 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Resultado de la importación de calificaciones: las filas con error no abortan el resto. */
+@Getter @AllArgsConstructor
+public class ReporteCalificaciones {
+    private int total;
+    private int actualizadas;
+    private int sinCambios;   // ya tenían esa calificación: no se escriben
+    private List<ReporteImportacion.ErrorFila> errores;
+}
@@ -0,0 +1,20 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Resultado de una importación masiva: las filas con error no abortan el resto. */
+@Getter @AllArgsConstructor
+public class ReporteImportacion {
+    private int total;
+    private int creados;
+    private List<ErrorFila> errores;
+
+    @Getter @AllArgsConstructor
+    public static class ErrorFila {
+        private int fila;       // 1-based: índice en el JSON o línea en el CSV
+        private String mensaje;
+    }
+}
@@ -0,0 +1,21 @@
+package gestionpa.com.interciclo.DTO;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Resultado de un cambio de estado masivo: los rechazados no impiden aplicar el resto. */
+@Getter @AllArgsConstructor
+public class ResultadoCambioEstado {
+    private EstadoProyecto estado;
+    private List<Long> aplicados;
+    private List<Rechazo> rechazados;
+
+    @Getter @AllArgsConstructor
+    public static class Rechazo {
+        private Long id;
+        private String motivo;
+    }
+}
@@ -0,0 +1,51 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Huella de un GET de colección, calculada con un agregado sin cargar filas (ver los repositorios).
+ * <ul>
+ *   <li>{@code total}: baja con cada borrado.</li>
+ *   <li>{@code maxId}: sube con cada alta (los ids salen de secuencias).</li>
+ *   <li>{@code versiones}: una suma de @Version por entidad (la fila y cada anidado); sube con cada cambio.</li>
+ * </ul>
+ * Las sumas van por separado en el ETag: en un solo número se compensaban (reasignar un proyecto a un
+ * tutor con dos versiones menos, +1 -2, y editar otro proyecto, +1, dejaban el ETag igual).
+ * Se prefieren las versiones a max(actualizadoEn): la fecha de la fila no ve cambios en el tutor o
+ * el rol anidados, ni updates en bloque que no pasan por @UpdateTimestamp.
+ */
+@Getter
+public class VersionColeccion {
+    private final Long total;
+    private final Long maxId;
+    private final List<Long> versiones;
+
+    public VersionColeccion(Long total, Long maxId, Long versiones) {
+        this(total, maxId, List.of(versiones));
+    }
+
+    /** Fila con su rol anidado (tutores, estudiantes). */
+    public VersionColeccion(Long total, Long maxId, Long versiones, Long rol) {
+        this(total, maxId, List.of(versiones, rol));
+    }
+
+    /** Proyecto con tutor, estudiante y el rol de cada uno. */
+    public VersionColeccion(Long total, Long maxId, Long versiones,
+                            Long tutores, Long estudiantes, Long rolesTutor, Long rolesEstudiante) {
+        this(total, maxId, List.of(versiones, tutores, estudiantes, rolesTutor, rolesEstudiante));
+    }
+
+    private VersionColeccion(Long total, Long maxId, List<Long> versiones) {
+        this.total = total;
+        this.maxId = maxId;
+        this.versiones = versiones;
+    }
+
+    public String etag() {
+        return "\"" + total + "-" + maxId + "-"
+                + versiones.stream().map(String::valueOf).collect(Collectors.joining(".")) + "\"";
+    }
+}
@@ -0,0 +1,58 @@
+package gestionpa.com.interciclo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validadores HTTP de un recurso: su @Version, la suma de las versiones de lo que se serializa
+ * anidado con él (tutor, estudiante, rol) y su última modificación. Los repositorios lo leen con
+ * una consulta por PK sin cargar entidades, y los servicios lo calculan igual desde la entidad.
+ *
+ * Al cambiar el recurso o cualquiera de sus anidados cambia la ETag: las versiones sólo suben y
+ * reasignar tutor/estudiante sube la versión del propio proyecto.
+ */
+@Getter @AllArgsConstructor
+public class VersionRecurso {
+    private Long version;
+    private Long anidadas;
+    private LocalDateTime actualizadoEn; // null si la entidad no lo tiene (TipoUsuario)
+
+    public VersionRecurso(Long version) {
+        this(version, 0L, null);
+    }
+
+    public String etag() {
+        return "\"" + version + "-" + anidadas + "\"";
+    }
+
+    /** If-Match: {@code *} o alguna de las ETags (fuertes) de la lista es la actual. */
+    public boolean coincide(String ifMatch) {
+        String actual = etag();
+        for (String etiqueta : ifMatch.split(",")) {
+            String e = etiqueta.trim();
+            if (e.equals("*") || e.equals(actual)) return true;
+        }
+        return false;
+    }
+
+    /** Para PUT/PATCH con If-Match: 412 si el cliente no tiene la versión actual. Sin cabecera no comprueba nada. */
+    public void exigir(String ifMatch) {
+        if (ifMatch != null && !coincide(ifMatch)) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "El recurso cambió desde que se leyó (ETag actual " + etag() + ")");
+        }
+    }
+
+    /** La más reciente de las fechas (las nulas se ignoran). */
+    public static LocalDateTime ultima(LocalDateTime... fechas) {
+        LocalDateTime max = null;
+        for (LocalDateTime f : fechas) {
+            if (f != null && (max == null || f.isAfter(max))) max = f;
+        }
+        return max;
+    }
+}
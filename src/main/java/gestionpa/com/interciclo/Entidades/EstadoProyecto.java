@@ -6,5 +6,21 @@ public enum EstadoProyecto {
     APROBADO,
     EN_DESARROLLO,
     FINALIZADO,
-    RECHAZADO
+    RECHAZADO;
+
+    /**
+     * Transiciones que admiten PUT, PATCH y el cambio de estado masivo (POST /api/proyectos/estado).
+     * Un proyecto sólo puede crearse en PROPUESTO.
+     * EN_REVISION puede volver a PROPUESTO (devuelto para correcciones) y un RECHAZADO puede presentarse de nuevo.
+     */
+    public boolean puedePasarA(EstadoProyecto destino) {
+        return switch (this) {
+            case PROPUESTO -> destino == EN_REVISION || destino == RECHAZADO;
+            case EN_REVISION -> destino == APROBADO || destino == RECHAZADO || destino == PROPUESTO;
+            case APROBADO -> destino == EN_DESARROLLO;
+            case EN_DESARROLLO -> destino == FINALIZADO;
+            case RECHAZADO -> destino == PROPUESTO;
+            case FINALIZADO -> false;
+        };
+    }
 }
@@ -1,9 +1,11 @@
 package gestionpa.com.interciclo.Entidades;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import gestionpa.com.interciclo.Config.HibernateConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -29,7 +31,8 @@ import java.time.LocalDateTime;
 public class Estudiante {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "estudiante_seq")
+    @SequenceGenerator(name = "estudiante_seq", sequenceName = "estudiante_seq", allocationSize = HibernateConfig.LOTE_JDBC)
     private Long id;
 
     @NotBlank @Size(max = 60)
@@ -40,13 +43,13 @@ public class Estudiante {
     @Column(nullable = false, length = 60)
     private String apellido;
 
-    @Email @NotBlank @Size(max = 120)
+    @Email @NotBlank @Size(max = 120) @Pattern(regexp = "\\p{ASCII}*", message = "sólo admite caracteres ASCII")
     @Column(nullable = false, length = 120)
-    private String email; // Sugerencia: CITEXT por migración SQL
+    private String email; // sin distinguir mayúsculas: índice único upper(email) en EsquemaPostgres (ver Normalizacion.clave)
 
-    @NotBlank @Size(max = 40)
+    @NotBlank @Size(max = 40) @Pattern(regexp = "\\p{ASCII}*", message = "sólo admite caracteres ASCII")
     @Column(nullable = false, length = 40)
-    private String username; // Sugerencia: CITEXT por migración SQL
+    private String username; // ídem, upper(username)
 
     @NotBlank
 @Size(max = 255)
@@ -74,9 +77,9 @@ private String password;
     @JoinColumn(name = "tipo_usuario_id")
     private TipoUsuario tipoUsuario;
 
-    // Relación 1–1 (lado inverso)
-    @OneToOne(mappedBy = "estudiante", fetch = FetchType.LAZY)
-    private Proyecto proyecto;
+    // Relación 1–1: sólo se mapea en Proyecto (dueño). El lado inverso @OneToOne(mappedBy)
+    // no puede ser LAZY sin bytecode enhancement y disparaba un SELECT por estudiante;
+    // para navegarlo usar ProyectoRepositorio.findByEstudianteId.
 
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
@@ -85,4 +88,10 @@ private String password;
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime actualizadoEn;
+
+    // Bloqueo optimista y ETag; primitivo por lo mismo que en Proyecto.version
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
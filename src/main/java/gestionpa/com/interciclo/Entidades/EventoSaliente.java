@@ -0,0 +1,67 @@
+package gestionpa.com.interciclo.Entidades;
+
+import gestionpa.com.interciclo.Config.HibernateConfig;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox de eventos de proyecto: se inserta en la misma transacción que el cambio y DespachadorEventos
+ * la vacía en lotes. La fila se borra al entregarse; mientras falle sigue aquí con su siguiente intento.
+ * El id viaja en la entrega para que el destino descarte duplicados (la entrega es al menos una vez).
+ */
+@Entity
+@Table(
+    name = "evento_saliente",
+    indexes = @Index(name = "idx_evento_saliente_proximo", columnList = "proximo_intento, id")
+)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EventoSaliente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_saliente_seq")
+    @SequenceGenerator(name = "evento_saliente_seq", sequenceName = "evento_saliente_seq", allocationSize = HibernateConfig.LOTE_JDBC)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProyectoEvento.Tipo tipo;
+
+    @Column(nullable = false)
+    private Long proyectoId;
+
+    @Column(length = 20)
+    private String codigo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private EstadoProyecto estado;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private EstadoProyecto estadoAnterior;
+
+    private Long tutorId;
+
+    @Column(nullable = false)
+    private Instant instante; // cuándo ocurrió el cambio: el retraso de entrega se mide desde aquí
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(nullable = false)
+    private Instant proximoIntento;
+
+    @Column(length = 500)
+    private String ultimoError;
+
+    public static EventoSaliente de(ProyectoEvento e) {
+        return EventoSaliente.builder()
+                .tipo(e.getTipo()).proyectoId(e.getProyectoId()).codigo(e.getCodigo())
+                .estado(e.getEstado()).estadoAnterior(e.getEstadoAnterior()).tutorId(e.getTutorId())
+                .instante(e.getInstante()).proximoIntento(e.getInstante())
+                .build();
+    }
+}
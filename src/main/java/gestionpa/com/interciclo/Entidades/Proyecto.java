@@ -1,5 +1,7 @@
 package gestionpa.com.interciclo.Entidades;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import gestionpa.com.interciclo.Config.HibernateConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -24,11 +26,22 @@ import java.time.LocalDateTime;
     }
 )
 @Check(constraints = "calificacion_final BETWEEN 0 AND 100")
+// Grafo para lecturas que se serializan: tutor y estudiante (con su rol) en un solo SELECT
+@NamedEntityGraph(
+    name = "Proyecto.detalle",
+    attributeNodes = {
+        @NamedAttributeNode(value = "tutor", subgraph = "rol"),
+        @NamedAttributeNode(value = "estudiante", subgraph = "rol")
+    },
+    subgraphs = @NamedSubgraph(name = "rol", attributeNodes = @NamedAttributeNode("tipoUsuario"))
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Proyecto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con bloques de 50 (pooled-lo): permite INSERT en lote; ver EsquemaPostgres
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proyecto_seq")
+    @SequenceGenerator(name = "proyecto_seq", sequenceName = "proyecto_seq", allocationSize = HibernateConfig.LOTE_JDBC)
     private Long id;
 
     @NotBlank @Size(max = 20)
@@ -80,12 +93,13 @@ public class Proyecto {
         foreignKey = @ForeignKey(name = "fk_proyecto_tutor"))
     private Tutor tutor;
 
-    // Estudiante (1–1) — dueño de la relación
-    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    // Estudiante (1–1) — dueño de la relación. Se mapea como @ManyToOne y el 1–1 lo garantiza
+    // uk_proyecto_estudiante: @OneToOne (o unique = true) marca la columna única y Hibernate descarta la
+    // UNIQUE con nombre en favor de una anónima, que GlobalExceptionHandler no sabe traducir
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(
         name = "estudiante_id",
         nullable = false,
-        unique = true,
         foreignKey = @ForeignKey(name = "fk_proyecto_estudiante")
     )
     private Estudiante estudiante;
@@ -97,4 +111,11 @@ public class Proyecto {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime actualizadoEn;
+
+    // Bloqueo optimista y ETag (ver VersionRecurso). long y no Long: las referencias {"id": n} que llegan
+    // en el JSON tienen versión 0 y Hibernate no las toma por entidades nuevas (versión null = transitoria)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
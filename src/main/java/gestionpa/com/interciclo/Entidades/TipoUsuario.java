@@ -1,5 +1,7 @@
 package gestionpa.com.interciclo.Entidades;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import gestionpa.com.interciclo.Config.HibernateConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -11,7 +13,8 @@ import lombok.*;
 public class TipoUsuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tipo_usuario_seq")
+    @SequenceGenerator(name = "tipo_usuario_seq", sequenceName = "tipo_usuario_seq", allocationSize = HibernateConfig.LOTE_JDBC)
     private Long id;
 
     @NotBlank @Size(max = 50)
@@ -21,4 +24,10 @@ public class TipoUsuario {
     @Size(max = 200)
     @Column(length = 200)
     private String descripcion;
+
+    // Bloqueo optimista y ETag; primitivo por lo mismo que en Proyecto.version
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -1,9 +1,11 @@
 package gestionpa.com.interciclo.Entidades;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import gestionpa.com.interciclo.Config.HibernateConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -22,14 +24,16 @@ import com.fasterxml.jackson.annotation.JsonProperty;
     },
     indexes = {
         @Index(name = "idx_tutor_apellido", columnList = "apellido"),
-        @Index(name = "idx_tutor_nombre", columnList = "nombre")
+        @Index(name = "idx_tutor_nombre", columnList = "nombre"),
+        @Index(name = "idx_tutor_tipo_usuario", columnList = "tipo_usuario_id") // conteo de ADMIN por rol
     }
 )
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Tutor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tutor_seq")
+    @SequenceGenerator(name = "tutor_seq", sequenceName = "tutor_seq", allocationSize = HibernateConfig.LOTE_JDBC)
     private Long id;
 
     @NotBlank @Size(max = 60)
@@ -40,13 +44,13 @@ public class Tutor {
     @Column(nullable = false, length = 60)
     private String apellido;
 
-    @Email @NotBlank @Size(max = 120)
+    @Email @NotBlank @Size(max = 120) @Pattern(regexp = "\\p{ASCII}*", message = "sólo admite caracteres ASCII")
     @Column(nullable = false, length = 120)
-    private String email; // Sugerencia: en PG usar CITEXT por migración SQL
+    private String email; // sin distinguir mayúsculas: índice único upper(email) en EsquemaPostgres (ver Normalizacion.clave)
 
-    @NotBlank @Size(max = 40)
+    @NotBlank @Size(max = 40) @Pattern(regexp = "\\p{ASCII}*", message = "sólo admite caracteres ASCII")
     @Column(nullable = false, length = 40)
-    private String username; // Sugerencia: CITEXT en migración SQL
+    private String username; // ídem, upper(username)
 
     @NotBlank @Size(max = 255)
 @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
@@ -69,6 +73,7 @@ private String password;
     @JoinColumn(name = "tipo_usuario_id")
     private TipoUsuario tipoUsuario;
 
+    @JsonIgnore // evita recorrer (y serializar en ciclo) los proyectos del tutor
     @OneToMany(mappedBy = "tutor", fetch = FetchType.LAZY)
     private List<Proyecto> proyectos;
 
@@ -79,4 +84,10 @@ private String password;
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime actualizadoEn;
+
+    // Bloqueo optimista y ETag; primitivo por lo mismo que en Proyecto.version
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -1,16 +1,27 @@
 package gestionpa.com.interciclo.Repositorios;
 
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.Estudiante;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EstudianteRepositorio extends JpaRepository<Estudiante, Long> {
 
-    Optional<Estudiante> findByNombre(String nombre);
+    // tipoUsuario es EAGER: en listados se trae con join en vez de un SELECT por fila
+    @Override
+    @EntityGraph(attributePaths = "tipoUsuario")
+    List<Estudiante> findAll();
 
     Optional<Estudiante> findByEmail(String email);
 
@@ -18,11 +29,47 @@ public interface EstudianteRepositorio extends JpaRepository<Estudiante, Long> {
 
     Optional<Estudiante> findByCodigo(String codigo);
 
-    List<Estudiante> findByCarreraContainingIgnoreCase(String carrera);
+    // upper(email) = upper(?): índices únicos funcionales uk_estudiante_*_ci (ver EsquemaPostgres)
+    boolean existsByEmailIgnoreCase(String email);
 
-    boolean existsByEmail(String email);
-
-    boolean existsByUsername(String username);
+    boolean existsByUsernameIgnoreCase(String username);
 
     boolean existsByCodigo(String codigo);
+
+    // Autocompletado: similitud de palabra (pg_trgm) contra nombre_busqueda, "nombre apellido" sin acentos
+    // (columna generada en EsquemaPostgres). El índice GiST idx_estudiante_nombre_gist filtra con <% y entrega las
+    // filas ya ordenadas por distancia (<<->, 1 - word_similarity), así que sólo se leen :limite filas.
+    // Entre empates el índice elige cuáles entran; la consulta externa sólo fija el orden de la respuesta.
+    @Query(value = "select * from (select x.id as id, x.nombre as nombre, x.apellido as apellido, x.username as username, "
+            + "cast(1 - (sin_acentos(:texto) <<-> x.nombre_busqueda) as double precision) as similitud "
+            + "from estudiante x "
+            + "where sin_acentos(:texto) <% x.nombre_busqueda "
+            + "order by sin_acentos(:texto) <<-> x.nombre_busqueda "
+            + "limit :limite) s order by s.similitud desc, s.id", nativeQuery = true)
+    List<PersonaSugerencia> sugerir(@Param("texto") String texto, @Param("limite") int limite);
+
+    // Paginación keyset: usa la PK en lugar de OFFSET
+    @EntityGraph(attributePaths = "tipoUsuario")
+    List<Estudiante> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Validadores para ETag/Last-Modified (el rol se serializa anidado)
+    @Query("select new gestionpa.com.interciclo.DTO.VersionRecurso(e.version, coalesce(r.version, 0), e.actualizadoEn) "
+            + "from Estudiante e left join e.tipoUsuario r where e.id = :id")
+    Optional<VersionRecurso> buscarVersion(@Param("id") Long id);
+
+    @Query("select new gestionpa.com.interciclo.DTO.VersionColeccion(count(e), coalesce(max(e.id), 0), "
+            + "coalesce(sum(e.version), 0), coalesce(sum(r.version), 0)) "
+            + "from Estudiante e left join e.tipoUsuario r")
+    VersionColeccion versionColeccion();
+
+    // Unicidad en bloque para importaciones: una consulta por columna.
+    // Email y username reciben y devuelven claves (Normalizacion.clave) para usar los índices funcionales
+    @Query("select upper(e.email) from Estudiante e where upper(e.email) in :claves")
+    List<String> findEmailsExistentes(@Param("claves") Collection<String> claves);
+
+    @Query("select upper(e.username) from Estudiante e where upper(e.username) in :claves")
+    List<String> findUsernamesExistentes(@Param("claves") Collection<String> claves);
+
+    @Query("select e.codigo from Estudiante e where e.codigo in :valores")
+    List<String> findCodigosExistentes(@Param("valores") Collection<String> valores);
 }
@@ -0,0 +1,32 @@
+package gestionpa.com.interciclo.Repositorios;
+
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoSalienteRepositorio extends JpaRepository<EventoSaliente, Long> {
+
+    // FOR UPDATE SKIP LOCKED (timeout -2): con varias instancias cada una se lleva un lote distinto
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    List<EventoSaliente> findByProximoIntentoLessThanEqualOrderByIdAsc(Instant ahora, Limit limite);
+
+    // Reserva del lote mientras se entrega fuera de la transacción: nadie lo vuelve a tomar hasta :hasta
+    @Modifying
+    @Query("update EventoSaliente e set e.proximoIntento = :hasta where e.id in :ids")
+    int reservar(@Param("ids") Collection<Long> ids, @Param("hasta") Instant hasta);
+}
@@ -1,25 +1,147 @@
 package gestionpa.com.interciclo.Repositorios;
 
+import gestionpa.com.interciclo.DTO.Estadisticas;
+import gestionpa.com.interciclo.DTO.ProyectoCalificacion;
+import gestionpa.com.interciclo.DTO.ProyectoCoincidencia;
+import gestionpa.com.interciclo.DTO.ProyectoEstado;
+import gestionpa.com.interciclo.DTO.ProyectoResumen;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.EstadoProyecto;
 import gestionpa.com.interciclo.Entidades.Proyecto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProyectoRepositorio extends JpaRepository<Proyecto, Long> {
 
+    // Tutor y estudiante son LAZY: las lecturas que se serializan los traen en el mismo SELECT
+    @Override
+    @EntityGraph("Proyecto.detalle")
+    List<Proyecto> findAll();
+
+    @Override
+    @EntityGraph("Proyecto.detalle")
+    Optional<Proyecto> findById(Long id);
+
     Optional<Proyecto> findByCodigo(String codigo);
 
+    @EntityGraph("Proyecto.detalle")
     List<Proyecto> findByTutorId(Long tutorId);
 
     Optional<Proyecto> findByEstudianteId(Long estudianteId);
 
     boolean existsByEstudianteId(Long estudianteId); // útil para validar el 1–1
 
+    @EntityGraph("Proyecto.detalle")
     List<Proyecto> findByEstado(EstadoProyecto estado);
 
     List<Proyecto> findByTituloContainingIgnoreCase(String titulo);
+
+    // Paginación keyset: usa la PK en lugar de OFFSET
+    @EntityGraph("Proyecto.detalle")
+    List<Proyecto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Cursor de servidor (fetch size) para exportar sin cargar la tabla completa
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Proyecto p join fetch p.tutor t left join fetch t.tipoUsuario "
+            + "join fetch p.estudiante e left join fetch e.tipoUsuario order by p.id")
+    Stream<Proyecto> streamTodos();
+
+    // Proyección plana para listados: una sola consulta con join, tamaño constante por página
+    @Query("select new gestionpa.com.interciclo.DTO.ProyectoResumen(p.id, p.codigo, p.titulo, p.estado, "
+            + "p.areaTematica, p.calificacionFinal, p.fechaInicio, p.fechaFin, "
+            + "t.id, concat(t.nombre, ' ', t.apellido), e.id, concat(e.nombre, ' ', e.apellido), p.actualizadoEn) "
+            + "from Proyecto p join p.tutor t join p.estudiante e "
+            + "where p.id > :despuesDe "
+            + "and (:tutorId is null or t.id = :tutorId) "
+            + "and (:estado is null or p.estado = :estado) "
+            + "order by p.id")
+    List<ProyectoResumen> findResumenes(@Param("despuesDe") Long despuesDe,
+                                        @Param("tutorId") Long tutorId,
+                                        @Param("estado") EstadoProyecto estado,
+                                        Limit limit);
+
+    // Texto completo sobre la columna generada proyecto.busqueda (índice GIN, ver EsquemaPostgres)
+    @Query(value = "select p.id as id, p.codigo as codigo, p.titulo as titulo, p.estado as estado, "
+            + "cast(ts_rank_cd(p.busqueda, q) as double precision) as rango "
+            + "from proyecto p, websearch_to_tsquery('spanish', :texto) q "
+            + "where p.busqueda @@ q "
+            + "order by rango desc, p.id "
+            + "limit :limite", nativeQuery = true)
+    List<ProyectoCoincidencia> buscarTextoCompleto(@Param("texto") String texto, @Param("limite") int limite);
+
+    /*
+     * Cambio de estado masivo: las filas se leen con FOR UPDATE (en orden de id, para que dos lotes que se
+     * solapan no se bloqueen mutuamente) y quedan bloqueadas hasta el UPDATE, así lo validado es lo que se escribe.
+     */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id as id, p.codigo as codigo, p.estado as estado, p.tutor.id as tutorId "
+            + "from Proyecto p where p.id in :ids order by p.id")
+    List<ProyectoEstado> bloquearEstados(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id as id, p.codigo as codigo, p.estado as estado, p.tutor.id as tutorId "
+            + "from Proyecto p where p.estado = :desde and (:tutorId is null or p.tutor.id = :tutorId) order by p.id")
+    List<ProyectoEstado> bloquearEstados(@Param("desde") EstadoProyecto desde, @Param("tutorId") Long tutorId, Limit limit);
+
+    // Sube version (ETag y bloqueo optimista) y actualizadoEn como lo haría Hibernate al guardar la entidad
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Proyecto p set p.estado = :estado, p.actualizadoEn = :ahora, p.version = p.version + 1 "
+            + "where p.id in :ids")
+    int cambiarEstado(@Param("ids") Collection<Long> ids, @Param("estado") EstadoProyecto estado,
+                      @Param("ahora") LocalDateTime ahora);
+
+    // Importación de calificaciones: un SELECT ... FOR UPDATE por lote de códigos (índice único uk_proyecto_codigo).
+    // En orden de id, como bloquearEstados, para que dos importaciones o un cambio masivo no se bloqueen en cruz
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id as id, p.codigo as codigo, p.estado as estado, p.tutor.id as tutorId, "
+            + "p.calificacionFinal as calificacionFinal from Proyecto p where p.codigo in :codigos order by p.id")
+    List<ProyectoCalificacion> bloquearCalificaciones(@Param("codigos") Collection<String> codigos);
+
+    /* Agregados para /api/estadisticas */
+
+    @Query("select p.estado as estado, count(p) as total from Proyecto p group by p.estado order by p.estado")
+    List<Estadisticas.PorEstado> contarPorEstado();
+
+    @Query("select t.id as tutorId, concat(t.nombre, ' ', t.apellido) as tutor, count(p) as total "
+            + "from Proyecto p join p.tutor t group by t.id, t.nombre, t.apellido order by count(p) desc, t.id")
+    List<Estadisticas.PorTutor> contarPorTutor();
+
+    @Query("select p.areaTematica as area, count(p) as total, avg(p.calificacionFinal) as promedioCalificacion "
+            + "from Proyecto p group by p.areaTematica order by p.areaTematica")
+    List<Estadisticas.PorArea> resumirPorArea();
+
+    /* Validadores para ETag/Last-Modified: una fila o un agregado, sin cargar entidades */
+
+    @Query("select new gestionpa.com.interciclo.DTO.VersionRecurso(p.version, "
+            + "t.version + e.version + coalesce(rt.version, 0) + coalesce(re.version, 0), "
+            + "greatest(p.actualizadoEn, t.actualizadoEn, e.actualizadoEn)) "
+            + "from Proyecto p join p.tutor t join p.estudiante e "
+            + "left join t.tipoUsuario rt left join e.tipoUsuario re where p.id = :id")
+    Optional<VersionRecurso> buscarVersion(@Param("id") Long id);
+
+    @Query("select new gestionpa.com.interciclo.DTO.VersionColeccion(count(p), coalesce(max(p.id), 0), "
+            + "coalesce(sum(p.version), 0), coalesce(sum(t.version), 0), coalesce(sum(e.version), 0), "
+            + "coalesce(sum(rt.version), 0), coalesce(sum(re.version), 0)) "
+            + "from Proyecto p join p.tutor t join p.estudiante e "
+            + "left join t.tipoUsuario rt left join e.tipoUsuario re")
+    VersionColeccion versionColeccion();
 }
@@ -1,7 +1,11 @@
 package gestionpa.com.interciclo.Repositorios;
 
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.TipoUsuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +16,12 @@ public interface TipoUsuarioRepositorio extends JpaRepository<TipoUsuario, Long>
     Optional<TipoUsuario> findByNombre(String nombre);
 
     boolean existsByNombre(String nombre);
+
+    // Validadores para ETag
+    @Query("select new gestionpa.com.interciclo.DTO.VersionRecurso(t.version) from TipoUsuario t where t.id = :id")
+    Optional<VersionRecurso> buscarVersion(@Param("id") Long id);
+
+    @Query("select new gestionpa.com.interciclo.DTO.VersionColeccion(count(t), coalesce(max(t.id), 0), coalesce(sum(t.version), 0)) "
+            + "from TipoUsuario t")
+    VersionColeccion versionColeccion();
 }
@@ -1,7 +1,14 @@
 package gestionpa.com.interciclo.Repositorios;
 
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.Tutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,18 +17,51 @@ import java.util.Optional;
 @Repository
 public interface TutorRepositorio extends JpaRepository<Tutor, Long> {
 
-    Optional<Tutor> findByNombre(String nombre);
+    // tipoUsuario es EAGER: en listados se trae con join en vez de un SELECT por fila
+    @Override
+    @EntityGraph(attributePaths = "tipoUsuario")
+    List<Tutor> findAll();
 
     Optional<Tutor> findByEmail(String email);
 
+    // Usado en cada autenticación: el rol viene en el mismo SELECT
+    @EntityGraph(attributePaths = "tipoUsuario")
     Optional<Tutor> findByUsername(String username);
 
-    List<Tutor> findByApellidoContainingIgnoreCase(String apellido);
+    // upper(apellido) LIKE 'X%': usa idx_tutor_apellido_ci (un "contiene" no puede usar un B-tree)
+    List<Tutor> findByApellidoStartingWithIgnoreCase(String apellido);
 
-    boolean existsByEmail(String email);
+    // upper(email) = upper(?): índices únicos funcionales uk_tutor_*_ci (ver EsquemaPostgres)
+    boolean existsByEmailIgnoreCase(String email);
 
-    boolean existsByUsername(String username);
+    boolean existsByUsernameIgnoreCase(String username);
 
-    long countByTipoUsuarioNombreIgnoreCase(String nombre);
+    // Los nombres de rol se guardan canónicos (Normalizacion.rol): igualdad exacta sobre su índice único
+    long countByTipoUsuarioNombre(String nombre);
 
+    // Autocompletado: similitud de palabra (pg_trgm) contra nombre_busqueda, "nombre apellido" sin acentos
+    // (columna generada en EsquemaPostgres). El índice GiST idx_tutor_nombre_gist filtra con <% y entrega las
+    // filas ya ordenadas por distancia (<<->, 1 - word_similarity), así que sólo se leen :limite filas.
+    // Entre empates el índice elige cuáles entran; la consulta externa sólo fija el orden de la respuesta.
+    @Query(value = "select * from (select x.id as id, x.nombre as nombre, x.apellido as apellido, x.username as username, "
+            + "cast(1 - (sin_acentos(:texto) <<-> x.nombre_busqueda) as double precision) as similitud "
+            + "from tutor x "
+            + "where sin_acentos(:texto) <% x.nombre_busqueda "
+            + "order by sin_acentos(:texto) <<-> x.nombre_busqueda "
+            + "limit :limite) s order by s.similitud desc, s.id", nativeQuery = true)
+    List<PersonaSugerencia> sugerir(@Param("texto") String texto, @Param("limite") int limite);
+
+    // Paginación keyset: usa la PK en lugar de OFFSET
+    @EntityGraph(attributePaths = "tipoUsuario")
+    List<Tutor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Validadores para ETag/Last-Modified (el rol se serializa anidado)
+    @Query("select new gestionpa.com.interciclo.DTO.VersionRecurso(t.version, coalesce(r.version, 0), t.actualizadoEn) "
+            + "from Tutor t left join t.tipoUsuario r where t.id = :id")
+    Optional<VersionRecurso> buscarVersion(@Param("id") Long id);
+
+    @Query("select new gestionpa.com.interciclo.DTO.VersionColeccion(count(t), coalesce(max(t.id), 0), "
+            + "coalesce(sum(t.version), 0), coalesce(sum(r.version), 0)) "
+            + "from Tutor t left join t.tipoUsuario r")
+    VersionColeccion versionColeccion();
 }
@@ -1,15 +1,18 @@
 package gestionpa.com.interciclo.Seguridad;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class EncoderConfig {
 
+    /** BCrypt en pool acotado; app.bcrypt.coste admite 4..31 (cada +1 duplica el tiempo de hash). */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.bcrypt.coste:10}") int coste,
+                                           PoolHash poolHash,
+                                           MeterRegistry registry) {
+        return new PasswordEncoderEnPool(coste, poolHash, registry);
     }
 }
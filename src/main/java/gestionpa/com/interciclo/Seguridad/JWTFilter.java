@@ -1,27 +1,64 @@
 package gestionpa.com.interciclo.Seguridad;
 
 import gestionpa.com.interciclo.Servicios.JwtService;
+import gestionpa.com.interciclo.Servicios.Normalizacion;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Autentica cada petición con su JWT. Con {@code app.jwt.sin-estado} (por defecto) las authorities salen
+ * del claim firmado {@code tipoUsuario} y RevocacionTokens descarta los tokens de tutores desactivados o
+ * con rol/credenciales cambiados, sin consultar la BD. Los tokens emitidos antes del arranque (o sin
+ * claim {@code gen}) se validan cargando el tutor, igual que con el modo desactivado.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class JWTFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenCache tokenCache;
+    private final RevocacionTokens revocacion;
+    private final boolean sinEstado;
+    private final Timer verificacion;
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter revocados;
+
+    public JWTFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                     TokenCache tokenCache, RevocacionTokens revocacion, MeterRegistry registry,
+                     @Value("${app.jwt.sin-estado:true}") boolean sinEstado) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.revocacion = revocacion;
+        this.sinEstado = sinEstado;
+        this.verificacion = Timer.builder("seguridad.jwt.verificacion")
+                .description("Verificación de firma y lectura de claims del JWT").register(registry);
+        this.aciertos = Counter.builder("seguridad.jwt.cache").tag("resultado", "acierto").register(registry);
+        this.fallos = Counter.builder("seguridad.jwt.cache").tag("resultado", "fallo").register(registry);
+        this.revocados = Counter.builder("seguridad.jwt.revocados")
+                .description("JWT con firma válida rechazados por revocación").register(registry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -36,21 +73,30 @@ public class JWTFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
         String token = null;
-        String username = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             token = authHeader.substring(7);
-            try {
-                username = jwtService.extractUsername(token);
-            } catch (Exception e) {
-                // log real aquí
-                System.out.println("JWT inválido: " + e.getMessage());
-            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.validarToken(token)) { // incluye expiración
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = tokenCache.obtener(token);
+            if (userDetails != null) {
+                aciertos.increment();
+            } else {
+                fallos.increment();
+                // Una sola verificación de firma (incluye expiración) por token no cacheado
+                final String jwt = token;
+                Claims claims = verificacion.record(() -> jwtService.validarYExtraer(jwt));
+                if (claims == null) {
+                    log.debug("JWT inválido o expirado: {}", path);
+                } else {
+                    userDetails = usuarioDe(claims);
+                    if (userDetails != null) {
+                        tokenCache.guardar(token, userDetails, claims.getExpiration().getTime());
+                    }
+                }
+            }
+            if (userDetails != null && userDetails.isEnabled()) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -60,4 +106,29 @@ public class JWTFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
+
+    /** Usuario de un token con firma válida; null si está revocado o el tutor ya no existe. */
+    private UserDetails usuarioDe(Claims claims) {
+        String username = claims.getSubject();
+        Number generacion = claims.get("gen", Number.class);
+        if (sinEstado && generacion != null && claims.getIssuedAt() != null
+                && revocacion.emitidoEnEsteArranque(claims.getIssuedAt().getTime())) {
+            if (!revocacion.vigente(username, generacion.longValue())) {
+                revocados.increment();
+                log.debug("JWT revocado de {}", username);
+                return null;
+            }
+            String rol = claims.get("tipoUsuario", String.class);
+            return User.withUsername(username)
+                    .password("")
+                    .authorities("ROLE_" + Normalizacion.rol(rol != null ? rol : "USER"))
+                    .build();
+        }
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            log.debug("JWT de usuario inexistente: {}", e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,205 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de intentos de login por username y por IP, comprobado antes de BCrypt: un ataque de
+ * credenciales recibe 429 sin gastar CPU en hashes.
+ *
+ * Cada clave tiene un token bucket de {@code capacidad} intentos que se recarga a {@code por-minuto}.
+ * El bucket es un único AtomicLong con el instante teórico en que vuelve a estar lleno (GCRA), así que
+ * consumir es un CAS sin bloqueo. Usernames e IPs van en dos LRU por franjas de tamaño fijo
+ * ({@code app.login.max-claves} cada uno), así que probar miles de usernames no expulsa el bucket de la
+ * IP que los prueba; el lock de cada franja sólo cubre buscar/insertar la clave. Olvidar un bucket
+ * equivale a dejarlo lleno: con más usernames distintos que el LRU manda el límite por IP.
+ */
+@Component
+public class LimitadorLogin {
+
+    private static final int FRANJAS = 64;
+
+    private final Limite porUsuario;
+    private final Limite porIp;
+    private final Buckets usuarios;
+    private final Buckets ips;
+    private final Counter rechazosUsuario;
+    private final Counter rechazosIp;
+
+    public LimitadorLogin(@Value("${app.login.usuario.capacidad:5}") int capacidadUsuario,
+                          @Value("${app.login.usuario.por-minuto:5}") int porMinutoUsuario,
+                          @Value("${app.login.ip.capacidad:20}") int capacidadIp,
+                          @Value("${app.login.ip.por-minuto:60}") int porMinutoIp,
+                          @Value("${app.login.max-claves:100000}") int maxClaves,
+                          MeterRegistry registry) {
+        this.porUsuario = new Limite(capacidadUsuario, porMinutoUsuario);
+        this.porIp = new Limite(capacidadIp, porMinutoIp);
+        this.usuarios = new Buckets(maxClaves);
+        this.ips = new Buckets(maxClaves);
+
+        this.rechazosUsuario = Counter.builder("seguridad.login.rechazos").tag("por", "usuario")
+                .description("Intentos de login rechazados con 429 sin verificar la contraseña").register(registry);
+        this.rechazosIp = Counter.builder("seguridad.login.rechazos").tag("por", "ip")
+                .description("Intentos de login rechazados con 429 sin verificar la contraseña").register(registry);
+        Gauge.builder("seguridad.login.claves", this, LimitadorLogin::tamanio)
+                .description("Buckets de usernames e IPs en memoria").register(registry);
+    }
+
+    /** Consume un intento de la IP y del username; 429 con Retry-After si alguno está agotado. */
+    public void intento(String username, String ip) {
+        long ahora = System.nanoTime();
+        if (porIp.activo() && ip != null) {
+            long espera = ips.obtener(ip).consumir(porIp, ahora);
+            if (espera > 0) {
+                rechazosIp.increment();
+                throw new Limitado(espera);
+            }
+        }
+        if (porUsuario.activo() && username != null) {
+            long espera = usuarios.obtener(clave(username)).consumir(porUsuario, ahora);
+            if (espera > 0) {
+                rechazosUsuario.increment();
+                throw new Limitado(espera);
+            }
+        }
+    }
+
+    /** Login correcto: el usuario recupera todos sus intentos (los fallos de otros no le bloquean luego). */
+    public void exito(String username) {
+        if (username != null) usuarios.quitar(clave(username));
+    }
+
+    public int tamanio() {
+        return usuarios.tamanio() + ips.tamanio();
+    }
+
+    private static String clave(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /* ===================== Piezas ===================== */
+
+    /** capacidad <= 0 desactiva el límite. */
+    private record Limite(int capacidad, long intervaloNanos) {
+        Limite(int capacidad, int porMinuto) {
+            this(capacidad, TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto));
+        }
+
+        boolean activo() {
+            return capacidad > 0;
+        }
+    }
+
+    /** Token bucket como GCRA: {@code lleno} es cuándo volvería a tener todos los intentos. */
+    static final class Bucket {
+        private final AtomicLong lleno = new AtomicLong(System.nanoTime());
+
+        /** @return 0 si se consumió un intento; si no, nanosegundos hasta que haya uno */
+        long consumir(Limite l, long ahora) {
+            while (true) {
+                long actual = lleno.get();
+                long base = actual - ahora < 0 ? ahora : actual;
+                long siguiente = base + l.intervaloNanos();
+                long exceso = siguiente - ahora - l.capacidad() * l.intervaloNanos();
+                if (exceso > 0) return exceso;
+                if (lleno.compareAndSet(actual, siguiente)) return 0;
+            }
+        }
+    }
+
+    /** LRU acotado repartido en franjas con su propio lock. */
+    private static final class Buckets {
+        private final Franja[] franjas = new Franja[FRANJAS];
+
+        Buckets(int maxClaves) {
+            int porFranja = Math.max(1, maxClaves / FRANJAS);
+            for (int i = 0; i < FRANJAS; i++) franjas[i] = new Franja(porFranja);
+        }
+
+        Bucket obtener(String k) {
+            Franja f = franja(k);
+            f.lock.lock();
+            try {
+                return f.buckets.computeIfAbsent(k, x -> new Bucket());
+            } finally {
+                f.lock.unlock();
+            }
+        }
+
+        void quitar(String k) {
+            Franja f = franja(k);
+            f.lock.lock();
+            try {
+                f.buckets.remove(k);
+            } finally {
+                f.lock.unlock();
+            }
+        }
+
+        int tamanio() {
+            int n = 0;
+            for (Franja f : franjas) {
+                f.lock.lock();
+                try {
+                    n += f.buckets.size();
+                } finally {
+                    f.lock.unlock();
+                }
+            }
+            return n;
+        }
+
+        private Franja franja(String k) {
+            int h = k.hashCode();
+            return franjas[(h ^ (h >>> 16)) & (FRANJAS - 1)];
+        }
+    }
+
+    private static final class Franja {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Bucket> buckets;
+
+        Franja(int max) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> mayor) {
+                    return size() > max;
+                }
+            };
+        }
+    }
+
+    /** 429 con Retry-After en segundos hasta el siguiente intento permitido. */
+    static class Limitado extends ResponseStatusException {
+        private final long segundos;
+
+        Limitado(long esperaNanos) {
+            super(HttpStatus.TOO_MANY_REQUESTS, "Demasiados intentos de login, reintente más tarde");
+            this.segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L));
+        }
+
+        long getSegundos() {
+            return segundos;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders h = new HttpHeaders();
+            h.set(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+            return h;
+        }
+    }
+}
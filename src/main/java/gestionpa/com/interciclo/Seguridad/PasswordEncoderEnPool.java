@@ -0,0 +1,56 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt con coste configurable cuyo trabajo corre en {@link PoolHash}.
+ * upgradeEncoding marca para recodificar los hashes con un coste distinto al actual
+ * (DaoAuthenticationProvider lo hace en el login vía UserDetailsPasswordService).
+ */
+public class PasswordEncoderEnPool implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int coste;
+    private final PoolHash pool;
+    private final Timer codificar;
+    private final Timer verificar;
+
+    public PasswordEncoderEnPool(int coste, PoolHash pool, MeterRegistry registry) {
+        this.bcrypt = new BCryptPasswordEncoder(coste);
+        this.coste = coste;
+        this.pool = pool;
+        this.codificar = Timer.builder("seguridad.hash.duracion").tag("operacion", "codificar")
+                .description("Tiempo de CPU de BCrypt").register(registry);
+        this.verificar = Timer.builder("seguridad.hash.duracion").tag("operacion", "verificar")
+                .description("Tiempo de CPU de BCrypt").register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return pool.ejecutar(() -> codificar.record(() -> bcrypt.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return pool.ejecutar(() -> verificar.record(() -> bcrypt.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int actual = costeDe(encodedPassword);
+        return actual > 0 && actual != coste;
+    }
+
+    /* "$2a$10$..." -> 10; -1 si no es un hash BCrypt reconocible */
+    private static int costeDe(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return -1;
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
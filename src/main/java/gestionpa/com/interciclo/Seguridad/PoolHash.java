@@ -0,0 +1,104 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor acotado para BCrypt (codificar y verificar).
+ * Limita cuántos hashes corren a la vez (hilos) y cuántos esperan (cola); si la cola está llena
+ * la petición se rechaza al momento con 429 en lugar de retener un hilo de Tomcat detrás de los demás.
+ */
+@Component
+public class PoolHash {
+
+    private final ThreadPoolExecutor ejecutor;
+    private final int hilos;
+    private final Timer espera;
+    private final Counter rechazos;
+
+    public PoolHash(@Value("${app.hash.hilos:0}") int hilos,
+                    @Value("${app.hash.cola:64}") int cola,
+                    MeterRegistry registry) {
+        int n = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.hilos = n;
+        AtomicInteger secuencia = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, cola)),
+                r -> {
+                    Thread t = new Thread(r, "hash-" + secuencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("seguridad.hash.cola", ejecutor, e -> e.getQueue().size())
+                .description("Hashes BCrypt esperando un hilo").register(registry);
+        Gauge.builder("seguridad.hash.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes BCrypt en ejecución").register(registry);
+        this.espera = Timer.builder("seguridad.hash.espera")
+                .description("Tiempo en cola antes de empezar el hash").register(registry);
+        this.rechazos = Counter.builder("seguridad.hash.rechazos")
+                .description("Peticiones rechazadas con 429 por cola llena").register(registry);
+    }
+
+    /** Hilos del pool: quien envíe hashes en lote debe quedarse por debajo para no dejar sin hueco al login. */
+    public int hilos() {
+        return hilos;
+    }
+
+    /** Ejecuta la tarea en el pool y espera su resultado; 429 si el pool está saturado. */
+    public <T> T ejecutar(Supplier<T> tarea) {
+        long encolado = System.nanoTime();
+        Future<T> f;
+        try {
+            f = ejecutor.submit(() -> {
+                espera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return tarea.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new Saturado();
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Operación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    /** 429 con Retry-After: el cliente puede reintentar en cuanto baje la ráfaga. */
+    static class Saturado extends ResponseStatusException {
+        Saturado() {
+            super(HttpStatus.TOO_MANY_REQUESTS, "Servidor ocupado, reintente en unos segundos");
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders h = new HttpHeaders();
+            h.set(HttpHeaders.RETRY_AFTER, "1");
+            return h;
+        }
+    }
+}
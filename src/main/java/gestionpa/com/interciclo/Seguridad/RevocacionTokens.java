@@ -0,0 +1,94 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import gestionpa.com.interciclo.Servicios.JwtService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revocación de JWT sin consultar la base de datos. Cada token lleva la generación de su usuario al
+ * emitirse (claim {@code gen}); desactivar, cambiar rol o credenciales, o borrar el tutor sube esa
+ * generación y todos sus tokens anteriores dejan de valer.
+ *
+ * Las generaciones salen de un único contador creciente, así que una entrada puede olvidarse cuando ya
+ * han caducado todos los tokens anteriores a ella: sólo se guardan los usuarios revocados durante la
+ * vida de un token ({@link JwtService#DURACION_MS}). Es memoria del proceso: un token emitido antes del arranque
+ * no se puede comprobar aquí y JWTFilter lo valida contra la BD (ver {@link #emitidoEnEsteArranque}).
+ */
+@Component
+public class RevocacionTokens {
+
+    private record Revocacion(long generacion, long instante) {}
+
+    private final long arranque = System.currentTimeMillis() / 1000 * 1000; // iat del JWT va en segundos
+    private final AtomicLong contador = new AtomicLong();
+    private final ConcurrentHashMap<String, Revocacion> revocados = new ConcurrentHashMap<>();
+    private volatile long piso; // revocarTodos(): ningún token con generación menor vale
+
+    private final TokenCache tokenCache;
+
+    public RevocacionTokens(TokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    /** Generación que se firma en un token nuevo del usuario. */
+    public long generacion(String username) {
+        Revocacion r = revocados.get(username);
+        return Math.max(piso, r == null ? 0 : r.generacion());
+    }
+
+    /** ¿Sigue valiendo un token del usuario emitido con esa generación? */
+    public boolean vigente(String username, long generacion) {
+        return generacion >= generacion(username);
+    }
+
+    /** Si el token es anterior al arranque, las revocaciones previas se perdieron y hay que ir a la BD. */
+    public boolean emitidoEnEsteArranque(long emitidoEnMs) {
+        return emitidoEnMs >= arranque;
+    }
+
+    /**
+     * Revoca los tokens del usuario al confirmarse la transacción en curso (o ya, si no hay ninguna):
+     * revocar antes dejaría que un login concurrente obtuviera la generación nueva con los datos viejos.
+     */
+    public void revocarAlConfirmar(String username) {
+        alConfirmar(() -> revocar(username));
+    }
+
+    /** Para cambios que afectan a todos los usuarios (p. ej. renombrar un TipoUsuario). */
+    public void revocarTodosAlConfirmar() {
+        alConfirmar(() -> {
+            piso = contador.incrementAndGet();
+            revocados.clear(); // el piso ya cubre todas las generaciones anteriores
+            tokenCache.invalidarTodo();
+        });
+    }
+
+    public void revocar(String username) {
+        if (username == null) return;
+        long ahora = System.currentTimeMillis();
+        revocados.put(username, new Revocacion(contador.incrementAndGet(), ahora));
+        revocados.values().removeIf(r -> r.instante() < ahora - JwtService.DURACION_MS);
+        tokenCache.invalidarUsuario(username);
+    }
+
+    public int tamanio() {
+        return revocados.size();
+    }
+
+    private static void alConfirmar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -33,6 +33,8 @@ public class SecurityConfig {
                   "/actuator/health"
               ).permitAll()
               .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
+              // el despacho ASYNC que cierra un flujo (SSE de eventos) ya se autorizó en la petición original
+              .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
               .anyRequest().hasAnyRole("TUTOR","ADMIN")  // <--- sólo TUTOR/ADMIN
           )
           .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,70 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de tokens JWT ya verificados -> UserDetails.
+ * Un acierto evita volver a comprobar la firma HMAC y la consulta del tutor en BD.
+ * Cada entrada caduca con el propio token; con max-entradas = 0 la caché queda desactivada.
+ */
+@Component
+public class TokenCache {
+
+    private record Entrada(UserDetails usuario, long expiraEn) {}
+
+    private final int maxEntradas;
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    public TokenCache(@Value("${app.jwt.cache.max-entradas:10000}") int maxEntradas) {
+        this.maxEntradas = maxEntradas;
+    }
+
+    /** @return el usuario asociado al token, o null si no está en caché o ya expiró */
+    public UserDetails obtener(String token) {
+        Entrada e = entradas.get(token);
+        if (e == null) return null;
+        if (e.expiraEn() <= System.currentTimeMillis()) {
+            entradas.remove(token, e);
+            return null;
+        }
+        return e.usuario();
+    }
+
+    public void guardar(String token, UserDetails usuario, long expiraEn) {
+        if (maxEntradas <= 0) return;
+        if (entradas.size() >= maxEntradas) purgar();
+        entradas.put(token, new Entrada(usuario, expiraEn));
+    }
+
+    /** Descarta todos los tokens cacheados de un usuario (desactivado, cambio de rol, etc.). */
+    public void invalidarUsuario(String username) {
+        if (username == null) return;
+        entradas.values().removeIf(e -> username.equals(e.usuario().getUsername()));
+    }
+
+    public void invalidarTodo() {
+        entradas.clear();
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    /* Primero quita las expiradas; si sigue llena descarta ~10% arbitrario para acotar memoria. */
+    private void purgar() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(e -> e.expiraEn() <= ahora);
+        int sobrantes = entradas.size() - maxEntradas + Math.max(1, maxEntradas / 10);
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (sobrantes-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
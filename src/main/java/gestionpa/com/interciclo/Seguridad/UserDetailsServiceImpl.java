@@ -2,27 +2,30 @@ package gestionpa.com.interciclo.Seguridad;
 
 import gestionpa.com.interciclo.Entidades.Tutor;
 import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import gestionpa.com.interciclo.Servicios.Normalizacion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final TutorRepositorio tutorRepositorio;
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Tutor t = tutorRepositorio.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
         // Normaliza el rol para que Spring Security lo entienda como ROLE_XYZ
         String rol = (t.getTipoUsuario() != null) ? t.getTipoUsuario().getNombre() : "USER";
-        rol = rol.trim().toUpperCase().replace(' ', '_');
+        rol = Normalizacion.rol(rol);
 
         return User.builder()
                 .username(t.getUsername())
@@ -32,4 +35,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .disabled(Boolean.FALSE.equals(t.getEstaActivo()))
                 .build();
     }
+
+    /** Llamado tras un login correcto si el hash guardado usa otro coste BCrypt: guarda el nuevo hash. */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        tutorRepositorio.findByUsername(user.getUsername())
+                .ifPresent(t -> t.setPassword(newPassword));
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
@@ -0,0 +1,202 @@
+package gestionpa.com.interciclo.Servicios;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Aplica un PATCH leyendo el cuerpo JSON token a token y llamando directamente al setter de cada campo,
+ * sin construir un Map intermedio. La tabla de campos se arma una vez por servicio.
+ *
+ * <ul>
+ *   <li>Los valores se leen en el orden del cuerpo y se aplican en el orden de la tabla
+ *       (las reglas que dependen de otro campo ven siempre el mismo orden).</li>
+ *   <li>application/merge-patch+json (RFC 7386): null borra el campo; en campos obligatorios es 400.</li>
+ *   <li>application/json: null se ignora, como hacía el PATCH basado en Map.</li>
+ *   <li>Las claves desconocidas se ignoran; un objeto o arreglo en un campo simple es 400.</li>
+ * </ul>
+ */
+public final class AplicadorPatch<T> {
+
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Object NULO = new Object();
+
+    /** Qué hacer con un null explícito. */
+    public enum Nulo {
+        /** 400 en merge-patch; ignorado en JSON plano */
+        OBLIGATORIO,
+        /** borra el valor en merge-patch; ignorado en JSON plano */
+        ANULABLE,
+        /** borra el valor en ambos modos */
+        BORRA
+    }
+
+    @FunctionalInterface
+    private interface Lector {
+        Object leer(JsonParser p) throws IOException;
+    }
+
+    private record Campo<T>(String nombre, int indice, Lector lector, BiConsumer<T, Object> setter,
+                            Nulo nulo, int excluidoPor) {}
+
+    private final Map<String, Campo<T>> porNombre;
+    private final List<Campo<T>> enOrden;
+
+    private AplicadorPatch(List<Campo<T>> campos) {
+        this.enOrden = List.copyOf(campos);
+        Map<String, Campo<T>> m = new HashMap<>(campos.size() * 2);
+        for (Campo<T> c : campos) m.put(c.nombre(), c);
+        this.porNombre = m;
+    }
+
+    public static <T> Constructor<T> para() {
+        return new Constructor<>();
+    }
+
+    public static boolean esMergePatch(String contentType) {
+        return contentType != null && contentType.toLowerCase().startsWith(MERGE_PATCH_JSON);
+    }
+
+    public void aplicar(T destino, InputStream cuerpo, boolean mergePatch) {
+        Object[] valores = new Object[enOrden.size()];
+        try (JsonParser p = JSON.createParser(cuerpo)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cuerpo del PATCH debe ser un objeto JSON");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                Campo<T> c = porNombre.get(p.currentName());
+                JsonToken t = p.nextToken();
+                if (c == null) {
+                    p.skipChildren();
+                } else if (t == JsonToken.VALUE_NULL) {
+                    valores[c.indice()] = NULO;
+                } else if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El campo " + c.nombre() + " debe ser un valor simple");
+                } else {
+                    valores[c.indice()] = leer(c, p);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "JSON inválido: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No se pudo leer el cuerpo del PATCH");
+        }
+
+        for (Campo<T> c : enOrden) {
+            Object v = valores[c.indice()];
+            if (v == null) continue;
+            if (c.excluidoPor() >= 0 && valores[c.excluidoPor()] != null && valores[c.excluidoPor()] != NULO) continue;
+            if (v == NULO) {
+                if (c.nulo() == Nulo.BORRA || (mergePatch && c.nulo() == Nulo.ANULABLE)) {
+                    c.setter().accept(destino, null);
+                } else if (mergePatch) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El campo " + c.nombre() + " no admite null");
+                }
+                continue;
+            }
+            c.setter().accept(destino, v);
+        }
+    }
+
+    private Object leer(Campo<T> c, JsonParser p) throws IOException {
+        try {
+            return c.lector().leer(p);
+        } catch (IllegalArgumentException | DateTimeParseException | JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Valor inválido para " + c.nombre() + ": " + p.getText());
+        }
+    }
+
+    /* ===================== Lectores ===================== */
+
+    private static String texto(JsonParser p) throws IOException {
+        return p.getText();
+    }
+
+    private static Boolean booleano(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_TRUE) return Boolean.TRUE;
+        if (t == JsonToken.VALUE_FALSE) return Boolean.FALSE;
+        return Boolean.valueOf(p.getText().trim());
+    }
+
+    private static Long entero(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) return p.getLongValue();
+        return Long.valueOf(p.getText().trim());
+    }
+
+    private static BigDecimal decimal(JsonParser p) throws IOException {
+        if (p.currentToken().isNumeric()) return p.getDecimalValue();
+        return new BigDecimal(p.getText().trim());
+    }
+
+    private static LocalDate fecha(JsonParser p) throws IOException {
+        return LocalDate.parse(p.getText().trim());
+    }
+
+    /* ===================== Construcción de la tabla ===================== */
+
+    public static final class Constructor<T> {
+        private final List<Campo<T>> campos = new ArrayList<>();
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        public Constructor<T> texto(String nombre, Nulo nulo, BiConsumer<T, String> setter) {
+            return campo(nombre, AplicadorPatch::texto, setter, nulo, -1);
+        }
+
+        public Constructor<T> booleano(String nombre, Nulo nulo, BiConsumer<T, Boolean> setter) {
+            return campo(nombre, AplicadorPatch::booleano, setter, nulo, -1);
+        }
+
+        public Constructor<T> entero(String nombre, Nulo nulo, BiConsumer<T, Long> setter) {
+            return campo(nombre, AplicadorPatch::entero, setter, nulo, -1);
+        }
+
+        /** Campo de texto que se ignora si el cuerpo trae también {@code prioritario} con valor (declarado antes). */
+        public Constructor<T> texto(String nombre, Nulo nulo, String prioritario, BiConsumer<T, String> setter) {
+            Integer i = indices.get(prioritario);
+            if (i == null) throw new IllegalStateException("Campo prioritario no declarado: " + prioritario);
+            return campo(nombre, AplicadorPatch::texto, setter, nulo, i);
+        }
+
+        public Constructor<T> decimal(String nombre, Nulo nulo, BiConsumer<T, BigDecimal> setter) {
+            return campo(nombre, AplicadorPatch::decimal, setter, nulo, -1);
+        }
+
+        public Constructor<T> fecha(String nombre, Nulo nulo, BiConsumer<T, LocalDate> setter) {
+            return campo(nombre, AplicadorPatch::fecha, setter, nulo, -1);
+        }
+
+        public <E extends Enum<E>> Constructor<T> enumeracion(String nombre, Class<E> tipo, Nulo nulo, BiConsumer<T, E> setter) {
+            return campo(nombre, p -> Enum.valueOf(tipo, p.getText().trim()), setter, nulo, -1);
+        }
+
+        public AplicadorPatch<T> construir() {
+            return new AplicadorPatch<>(campos);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> Constructor<T> campo(String nombre, Lector lector, BiConsumer<T, V> setter, Nulo nulo, int excluidoPor) {
+            if (indices.containsKey(nombre)) throw new IllegalStateException("Campo duplicado: " + nombre);
+            int i = campos.size();
+            indices.put(nombre, i);
+            campos.add(new Campo<>(nombre, i, lector, (BiConsumer<T, Object>) setter, nulo, excluidoPor));
+            return this;
+        }
+    }
+}
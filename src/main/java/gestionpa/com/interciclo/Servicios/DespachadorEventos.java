@@ -0,0 +1,151 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.LoteProyectoEventos;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+import gestionpa.com.interciclo.Repositorios.EventoSalienteRepositorio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outbox de ProyectoEvento: el evento se guarda con el cambio (misma transacción) y un hilo programado
+ * lo entrega después al DestinoEventos configurado, sin añadir esa latencia a la petición.
+ *
+ * Cada lote pasa por tres pasos y sólo los extremos tocan la base de datos:
+ * <ol>
+ *   <li>una transacción corta lo lee con FOR UPDATE SKIP LOCKED y lo reserva adelantando su
+ *       proximoIntento {@code app.outbox.reserva-segundos};</li>
+ *   <li>se entrega sin transacción, sin locks ni conexión retenidos mientras dura la llamada al destino;</li>
+ *   <li>otra transacción lo borra o, si falló, lo aplaza.</li>
+ * </ol>
+ * Si la aplicación cae a mitad, el lote vuelve a salir al vencer la reserva (al menos una vez). Si el destino
+ * falla, el lote espera con retroceso exponencial (hasta {@code app.outbox.reintento-max-segundos}) y los
+ * siguientes eventos siguen saliendo, así que el orden sólo se garantiza mientras no haya fallos.
+ */
+@Slf4j
+@Service
+public class DespachadorEventos {
+
+    private final EventoSalienteRepositorio repositorio;
+    private final DestinoEventos destino;
+    private final TransactionTemplate transaccion;
+    private final int lote;
+    private final Duration reintentoMaximo;
+    private final Duration reserva;
+
+    private final Timer retraso;
+    private final DistributionSummary tamanioLote;
+    private final Counter entregados;
+    private final Counter reintentos;
+
+    public DespachadorEventos(EventoSalienteRepositorio repositorio,
+                              DestinoEventos destino,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry registry,
+                              @Value("${app.outbox.lote:100}") int lote,
+                              @Value("${app.outbox.reintento-max-segundos:300}") long reintentoMaxSegundos,
+                              @Value("${app.outbox.reserva-segundos:60}") long reservaSegundos) {
+        this.repositorio = repositorio;
+        this.destino = destino;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.lote = lote;
+        this.reintentoMaximo = Duration.ofSeconds(reintentoMaxSegundos);
+        this.reserva = Duration.ofSeconds(reservaSegundos);
+        this.retraso = Timer.builder("app.outbox.retraso")
+                .description("Desde el cambio hasta su entrega al destino").register(registry);
+        this.tamanioLote = DistributionSummary.builder("app.outbox.lote")
+                .description("Eventos por lote despachado").register(registry);
+        this.entregados = Counter.builder("app.outbox.entregados")
+                .description("Eventos entregados").register(registry);
+        this.reintentos = Counter.builder("app.outbox.reintentos")
+                .description("Eventos cuyo lote falló y quedan para reintento").register(registry);
+    }
+
+    /** Antes del commit de la transacción que hizo el cambio: si se revierte, tampoco queda el evento. */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void registrar(ProyectoEvento evento) {
+        repositorio.save(EventoSaliente.de(evento));
+    }
+
+    /** Igual, con un solo saveAll: Hibernate lo envía en lotes JDBC de {@code HibernateConfig.LOTE_JDBC}. */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void registrar(LoteProyectoEventos lote) {
+        repositorio.saveAll(lote.getEventos().stream().map(EventoSaliente::de).toList());
+    }
+
+    /** Vacía la outbox lote a lote; se detiene en el primer lote incompleto o fallido. */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}")
+    public void despachar() {
+        int n;
+        do {
+            n = despacharLote();
+        } while (n == lote);
+    }
+
+    /** Eventos entregados en un lote; -1 si el destino falló. */
+    int despacharLote() {
+        Instant ahora = Instant.now();
+        List<EventoSaliente> pendientes = reservar(ahora);
+        if (pendientes.isEmpty()) return 0;
+        List<Long> ids = pendientes.stream().map(EventoSaliente::getId).toList();
+        try {
+            destino.entregar(pendientes);
+        } catch (RuntimeException e) {
+            transaccion.executeWithoutResult(estado -> aplazar(ids, ahora, e));
+            return -1;
+        }
+        transaccion.executeWithoutResult(estado -> repositorio.deleteAllByIdInBatch(ids));
+        Instant fin = Instant.now();
+        pendientes.forEach(p -> retraso.record(Duration.between(p.getInstante(), fin)));
+        tamanioLote.record(pendientes.size());
+        entregados.increment(pendientes.size());
+        return pendientes.size();
+    }
+
+    /* Las filas se devuelven como se leyeron: la reserva es un UPDATE en bloque y no toca las entidades */
+    private List<EventoSaliente> reservar(Instant ahora) {
+        List<EventoSaliente> pendientes = transaccion.execute(estado -> {
+            List<EventoSaliente> lote =
+                    repositorio.findByProximoIntentoLessThanEqualOrderByIdAsc(ahora, Limit.of(this.lote));
+            if (!lote.isEmpty()) {
+                repositorio.reservar(lote.stream().map(EventoSaliente::getId).toList(), ahora.plus(reserva));
+            }
+            return lote;
+        });
+        return pendientes != null ? pendientes : List.of();
+    }
+
+    private void aplazar(List<Long> ids, Instant ahora, RuntimeException e) {
+        log.warn("No se pudieron entregar {} eventos (desde id {}): {}", ids.size(), ids.get(0), e.getMessage());
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 500) error = error.substring(0, 500);
+        // con la reserva vencida otra instancia pudo entregarlos y borrarlos: sólo se aplaza lo que queda
+        for (EventoSaliente p : repositorio.findAllById(ids)) {
+            p.setIntentos(p.getIntentos() + 1);
+            p.setProximoIntento(ahora.plus(espera(p.getIntentos())));
+            p.setUltimoError(error);
+        }
+        reintentos.increment(ids.size());
+    }
+
+    /** 1 s, 2 s, 4 s... hasta el máximo configurado. */
+    private Duration espera(int intentos) {
+        Duration d = Duration.ofSeconds(1L << Math.min(intentos - 1, 20));
+        return d.compareTo(reintentoMaximo) > 0 ? reintentoMaximo : d;
+    }
+}
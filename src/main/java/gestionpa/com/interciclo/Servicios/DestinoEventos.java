@@ -0,0 +1,15 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+
+import java.util.List;
+
+/**
+ * A dónde entrega DespachadorEventos los eventos de la outbox ({@code app.outbox.destino}).
+ * Una excepción marca el lote entero para reintento: el destino puede recibir eventos repetidos
+ * y debe descartarlos por {@code id}.
+ */
+public interface DestinoEventos {
+
+    void entregar(List<EventoSaliente> lote);
+}
@@ -0,0 +1,28 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino por defecto: vuelve a publicar cada evento como EventoSaliente para los {@code @EventListener}
+ * de la propia aplicación. Se ejecutan en el hilo del despachador; si uno lanza, el lote se reintenta.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.destino", havingValue = "local", matchIfMissing = true)
+public class DestinoEventosLocal implements DestinoEventos {
+
+    private final ApplicationEventPublisher eventos;
+
+    public DestinoEventosLocal(ApplicationEventPublisher eventos) {
+        this.eventos = eventos;
+    }
+
+    @Override
+    public void entregar(List<EventoSaliente> lote) {
+        lote.forEach(eventos::publishEvent);
+    }
+}
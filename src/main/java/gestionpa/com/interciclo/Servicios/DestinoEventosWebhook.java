@@ -0,0 +1,43 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code app.outbox.destino=webhook}: un POST por lote a {@code app.outbox.webhook.url} con el array JSON
+ * de eventos. Cualquier respuesta que no sea 2xx (o un timeout) se reintenta.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.destino", havingValue = "webhook")
+public class DestinoEventosWebhook implements DestinoEventos {
+
+    private final RestClient cliente;
+
+    public DestinoEventosWebhook(RestClient.Builder builder,
+                                 @Value("${app.outbox.webhook.url}") String url,
+                                 @Value("${app.outbox.webhook.timeout-ms:5000}") long timeoutMs) {
+        SimpleClientHttpRequestFactory fabrica = new SimpleClientHttpRequestFactory();
+        fabrica.setConnectTimeout(Duration.ofMillis(timeoutMs));
+        fabrica.setReadTimeout(Duration.ofMillis(timeoutMs));
+        // con buffer el lote sale con Content-Length en vez de chunked (más receptores lo aceptan)
+        this.cliente = builder.baseUrl(url).requestFactory(new BufferingClientHttpRequestFactory(fabrica)).build();
+    }
+
+    @Override
+    public void entregar(List<EventoSaliente> lote) {
+        cliente.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(lote)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
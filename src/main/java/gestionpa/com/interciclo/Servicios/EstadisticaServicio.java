@@ -0,0 +1,94 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.Estadisticas;
+import gestionpa.com.interciclo.DTO.LoteProyectoEventos;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.Repositorios.ProyectoRepositorio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estadísticas de proyectos calculadas con GROUP BY en BD y cacheadas un TTL corto.
+ * Cada escritura confirmada de ProyectoServicio marca la caché como obsoleta; el siguiente
+ * lector la recalcula una sola vez (el resto espera el resultado en lugar de repetir las consultas).
+ */
+@Service
+public class EstadisticaServicio {
+
+    private record Entrada(Estadisticas valor, long expiraEn) {}
+
+    private final ProyectoRepositorio proyectoRepositorio;
+    private final TransactionTemplate lecturaReplica;
+    private final TransactionTemplate lecturaPrimaria;
+    private final long ttlMillis;
+    private final ReentrantLock recalculo = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Entrada actual;
+
+    public EstadisticaServicio(ProyectoRepositorio proyectoRepositorio,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.estadisticas.ttl-segundos:30}") long ttlSegundos) {
+        this.proyectoRepositorio = proyectoRepositorio;
+        this.lecturaReplica = new TransactionTemplate(transactionManager);
+        this.lecturaReplica.setReadOnly(true);
+        this.lecturaPrimaria = new TransactionTemplate(transactionManager);
+        this.ttlMillis = ttlSegundos * 1000;
+    }
+
+    /*
+     * Sin transacción: un acierto de caché o la espera en recalculo no deben retener una conexión del pool
+     * (una transacción readOnly la pide al empezar salvo detrás del proxy perezoso de la réplica). Sólo
+     * calcular() abre una: readOnly, y por tanto en la réplica si la hay, cuando la entrada sólo caducó;
+     * en la primaria tras una invalidación, para no cachear todo un TTL una réplica que aún no tiene ese cambio.
+     */
+    public Estadisticas obtener() {
+        Entrada e = actual;
+        if (vigente(e)) return e.valor();
+        recalculo.lock();
+        try {
+            e = actual;
+            if (vigente(e)) return e.valor();
+            long v = version.get();
+            TransactionTemplate lectura = e == null ? lecturaPrimaria : lecturaReplica;
+            Estadisticas nuevas = lectura.execute(estado -> calcular());
+            // Si hubo un commit durante el cálculo el resultado puede ser anterior a él: no se cachea
+            if (version.get() == v) actual = new Entrada(nuevas, System.currentTimeMillis() + ttlMillis);
+            return nuevas;
+        } finally {
+            recalculo.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void alCambiarProyecto(ProyectoEvento evento) {
+        version.incrementAndGet();
+        actual = null;
+    }
+
+    @TransactionalEventListener
+    public void alCambiarProyectos(LoteProyectoEventos lote) {
+        version.incrementAndGet();
+        actual = null;
+    }
+
+    private Estadisticas calcular() {
+        List<Estadisticas.PorEstado> porEstado = proyectoRepositorio.contarPorEstado();
+        long total = porEstado.stream().mapToLong(Estadisticas.PorEstado::getTotal).sum();
+        return new Estadisticas(total, porEstado,
+                proyectoRepositorio.contarPorTutor(),
+                proyectoRepositorio.resumirPorArea(),
+                Instant.now());
+    }
+
+    private boolean vigente(Entrada e) {
+        return e != null && e.expiraEn() > System.currentTimeMillis();
+    }
+}
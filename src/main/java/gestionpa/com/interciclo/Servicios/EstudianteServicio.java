@@ -1,33 +1,68 @@
 package gestionpa.com.interciclo.Servicios;
 
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
+import gestionpa.com.interciclo.DTO.ReporteImportacion;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.Estudiante;
 import gestionpa.com.interciclo.Entidades.TipoUsuario;
 import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
-import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
-import jakarta.transaction.Transactional;
+import gestionpa.com.interciclo.Seguridad.PoolHash;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch.Nulo;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 @Transactional
 public class EstudianteServicio {
 
     private final EstudianteRepositorio estudianteRepositorio;
-    private final TipoUsuarioRepositorio tipoUsuarioRepositorio;
     private final PasswordEncoder passwordEncoder;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TipoUsuarioRegistro tipoUsuarioRegistro;
+    private final TransactionTemplate transaccion;
+    private final ExecutorService hashImportacion;
+    private final AplicadorPatch<Estudiante> camposPatch;
 
     public EstudianteServicio(EstudianteRepositorio estudianteRepositorio,
-                              TipoUsuarioRepositorio tipoUsuarioRepositorio,
-                              PasswordEncoder passwordEncoder) {
+                              PasswordEncoder passwordEncoder,
+                              EntityManager entityManager,
+                              Validator validator,
+                              TipoUsuarioRegistro tipoUsuarioRegistro,
+                              PoolHash poolHash,
+                              PlatformTransactionManager transactionManager) {
         this.estudianteRepositorio = estudianteRepositorio;
-        this.tipoUsuarioRepositorio = tipoUsuarioRepositorio;
         this.passwordEncoder = passwordEncoder;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.tipoUsuarioRegistro = tipoUsuarioRegistro;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.hashImportacion = ejecutorHash(Math.max(1, poolHash.hilos() / 2));
+        this.camposPatch = construirCamposPatch();
     }
 
     private static final String ROL_ESTUDIANTE = "ESTUDIANTE";
@@ -39,13 +74,13 @@ public class EstudianteServicio {
         e.setTipoUsuario(resolverTipoUsuarioEstudiante(e.getTipoUsuario()));
 
         // 2) Normaliza
-        normaliza(e);
+        Normalizacion.estudiante(e);
 
         // 3) Unicidades
-        if (estudianteRepositorio.existsByEmail(e.getEmail())) {
+        if (estudianteRepositorio.existsByEmailIgnoreCase(e.getEmail())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + e.getEmail());
         }
-        if (estudianteRepositorio.existsByUsername(e.getUsername())) {
+        if (estudianteRepositorio.existsByUsernameIgnoreCase(e.getUsername())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + e.getUsername());
         }
         if (estudianteRepositorio.existsByCodigo(e.getCodigo())) {
@@ -64,38 +99,39 @@ public class EstudianteServicio {
         return estudianteRepositorio.save(e);
     }
 
-    public Estudiante actualizar(Long id, Estudiante e) {
+    public Estudiante actualizar(Long id, Estudiante e, String ifMatch) {
         Estudiante db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
 
         // Si llega tipoUsuario, se resuelve pero sólo se permite ESTUDIANTE
         if (e.getTipoUsuario() != null) {
             db.setTipoUsuario(resolverTipoUsuarioEstudiante(e.getTipoUsuario()));
         }
 
-        String nuevoEmail = trimOrNull(e.getEmail());
-        String nuevoUser  = trimOrNull(e.getUsername());
-        String nuevoCod   = trimOrNull(e.getCodigo());
+        String nuevoEmail = Normalizacion.trimOrNull(e.getEmail());
+        String nuevoUser  = Normalizacion.trimOrNull(e.getUsername());
+        String nuevoCod   = Normalizacion.trimOrNull(e.getCodigo());
 
-        if (nuevoEmail != null && !equalsIgnoreCase(nuevoEmail, db.getEmail())
-                && estudianteRepositorio.existsByEmail(nuevoEmail)) {
+        if (nuevoEmail != null && !Normalizacion.mismaClave(nuevoEmail, db.getEmail())
+                && estudianteRepositorio.existsByEmailIgnoreCase(nuevoEmail)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + nuevoEmail);
         }
-        if (nuevoUser != null && !equalsIgnoreCase(nuevoUser, db.getUsername())
-                && estudianteRepositorio.existsByUsername(nuevoUser)) {
+        if (nuevoUser != null && !Normalizacion.mismaClave(nuevoUser, db.getUsername())
+                && estudianteRepositorio.existsByUsernameIgnoreCase(nuevoUser)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + nuevoUser);
         }
-        if (nuevoCod != null && !equalsIgnoreCase(nuevoCod, db.getCodigo())
+        if (nuevoCod != null && !Normalizacion.mismaClave(nuevoCod, db.getCodigo())
                 && estudianteRepositorio.existsByCodigo(nuevoCod)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Código ya existe: " + nuevoCod);
         }
 
-        db.setNombre(trimOrNull(e.getNombre()));
-        db.setApellido(trimOrNull(e.getApellido()));
+        db.setNombre(Normalizacion.trimOrNull(e.getNombre()));
+        db.setApellido(Normalizacion.trimOrNull(e.getApellido()));
         if (nuevoEmail != null) db.setEmail(nuevoEmail);
         if (nuevoUser  != null) db.setUsername(nuevoUser);
         if (nuevoCod   != null) db.setCodigo(nuevoCod);
-        db.setCarrera(trimOrNull(e.getCarrera()));
-        db.setCiclo(trimOrNull(e.getCiclo()));
+        db.setCarrera(Normalizacion.trimOrNull(e.getCarrera()));
+        db.setCiclo(Normalizacion.trimOrNull(e.getCiclo()));
 
         if (e.getPassword() != null && !e.getPassword().isBlank()) {
             db.setPassword(passwordEncoder.encode(e.getPassword()));
@@ -105,12 +141,31 @@ public class EstudianteServicio {
         return db;
     }
 
-    @Transactional(Transactional.TxType.SUPPORTS)
+    @Transactional(readOnly = true)
     public List<Estudiante> listar() {
         return estudianteRepositorio.findAll();
     }
 
-    @Transactional(Transactional.TxType.SUPPORTS)
+    @Transactional(readOnly = true)
+    public PaginaCursor<Estudiante> listarPagina(Long despuesDe, Integer tamanio) {
+        int n = PaginaCursor.normalizaTamanio(tamanio);
+        List<Estudiante> filas = estudianteRepositorio.findByIdGreaterThanOrderByIdAsc(
+                despuesDe == null ? 0L : despuesDe, Limit.of(n + 1));
+        return PaginaCursor.de(filas, n, Estudiante::getId);
+    }
+
+    /** Autocompletado por nombre y apellido, tolerante a erratas: {@code q} de al menos 2 letras. */
+    @Transactional(readOnly = true)
+    public List<PersonaSugerencia> sugerir(String q, Integer limite) {
+        String texto = Normalizacion.trimOrNull(q);
+        if (texto == null || texto.length() < 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro q necesita al menos 2 caracteres");
+        }
+        int n = (limite == null || limite < 1) ? 10 : Math.min(limite, 50);
+        return estudianteRepositorio.sugerir(texto, n);
+    }
+
+    @Transactional(readOnly = true)
     public Estudiante obtenerPorId(Long id) {
         return estudianteRepositorio.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(
@@ -121,75 +176,298 @@ public class EstudianteServicio {
         estudianteRepositorio.deleteById(id);
     }
 
+    /* ===================== Versiones (ETag / If-Match) ===================== */
+
+    /** Validadores de GET /{id} con una consulta por PK, sin cargar la entidad. */
+    @Transactional(readOnly = true)
+    public VersionRecurso version(Long id) {
+        return estudianteRepositorio.buscarVersion(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Estudiante no encontrado id=" + id));
+    }
+
+    @Transactional(readOnly = true)
+    public VersionColeccion versionColeccion() {
+        return estudianteRepositorio.versionColeccion();
+    }
+
+    public static VersionRecurso versionDe(Estudiante e) {
+        long rol = e.getTipoUsuario() != null ? e.getTipoUsuario().getVersion() : 0;
+        return new VersionRecurso(e.getVersion(), rol, e.getActualizadoEn());
+    }
+
     /* ===================== PATCH ===================== */
 
-    public Estudiante patch(Long id, Map<String, Object> cambios) {
+    /** PATCH parcial; con merge-patch (RFC 7386) un null explícito borra los campos opcionales. */
+    public Estudiante patch(Long id, InputStream cuerpo, boolean mergePatch, String ifMatch) {
         Estudiante db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
+        camposPatch.aplicar(db, cuerpo, mergePatch);
+        return db;
+    }
 
-        // nombre, apellido
-        putIfString(cambios, "nombre", v -> db.setNombre(trimOrNull(v)));
-        putIfString(cambios, "apellido", v -> db.setApellido(trimOrNull(v)));
+    private AplicadorPatch<Estudiante> construirCamposPatch() {
+        return AplicadorPatch.<Estudiante>para()
+                .texto("nombre", Nulo.OBLIGATORIO, (e, v) -> e.setNombre(Normalizacion.trimOrNull(v)))
+                .texto("apellido", Nulo.OBLIGATORIO, (e, v) -> e.setApellido(Normalizacion.trimOrNull(v)))
+                .texto("email", Nulo.OBLIGATORIO, this::asignarEmail)
+                .texto("username", Nulo.OBLIGATORIO, this::asignarUsername)
+                .texto("codigo", Nulo.OBLIGATORIO, this::asignarCodigo)
+                .texto("password", Nulo.OBLIGATORIO, (e, raw) -> {
+                    if (!raw.isBlank()) e.setPassword(passwordEncoder.encode(raw));
+                })
+                .booleano("estaActivo", Nulo.OBLIGATORIO, Estudiante::setEstaActivo)
+                .texto("carrera", Nulo.ANULABLE, (e, v) -> e.setCarrera(Normalizacion.trimOrNull(v)))
+                .texto("ciclo", Nulo.ANULABLE, (e, v) -> e.setCiclo(Normalizacion.trimOrNull(v)))
+                // tipoUsuario por id o nombre (sólo ESTUDIANTE); el id tiene prioridad
+                .entero("tipoUsuarioId", Nulo.OBLIGATORIO, (e, tid) -> {
+                    TipoUsuario tu = tipoUsuarioRegistro.porId(tid)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + tid));
+                    if (!ROL_ESTUDIANTE.equalsIgnoreCase(tu.getNombre())) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol inválido para Estudiante: " + tu.getNombre());
+                    }
+                    e.setTipoUsuario(tu);
+                })
+                .texto("tipoUsuarioNombre", Nulo.OBLIGATORIO, "tipoUsuarioId", (e, v) -> {
+                    String nom = Normalizacion.rol(v);
+                    if (!ROL_ESTUDIANTE.equalsIgnoreCase(nom)) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol inválido para Estudiante: " + nom);
+                    }
+                    e.setTipoUsuario(tipoUsuarioRegistro.porNombre(nom)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom)));
+                })
+                .construir();
+    }
 
-        // email con unicidad
-        if (cambios.containsKey("email") && cambios.get("email") != null) {
-            String email = trimOrNull(String.valueOf(cambios.get("email")));
-            if (!equalsIgnoreCase(email, db.getEmail()) && estudianteRepositorio.existsByEmail(email)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + email);
-            }
-            db.setEmail(email);
+    private void asignarEmail(Estudiante db, String valor) {
+        String email = Normalizacion.trimOrNull(valor);
+        if (!Normalizacion.mismaClave(email, db.getEmail()) && estudianteRepositorio.existsByEmailIgnoreCase(email)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + email);
         }
+        db.setEmail(email);
+    }
+
+    private void asignarUsername(Estudiante db, String valor) {
+        String user = Normalizacion.trimOrNull(valor);
+        if (!Normalizacion.mismaClave(user, db.getUsername()) && estudianteRepositorio.existsByUsernameIgnoreCase(user)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + user);
+        }
+        db.setUsername(user);
+    }
+
+    private void asignarCodigo(Estudiante db, String valor) {
+        String cod = Normalizacion.trimOrNull(valor);
+        if (!Normalizacion.mismaClave(cod, db.getCodigo()) && estudianteRepositorio.existsByCodigo(cod)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Código ya existe: " + cod);
+        }
+        db.setCodigo(cod);
+    }
+
+    /* ===================== IMPORTACIÓN MASIVA ===================== */
 
-        // username con unicidad
-        if (cambios.containsKey("username") && cambios.get("username") != null) {
-            String user = trimOrNull(String.valueOf(cambios.get("username")));
-            if (!equalsIgnoreCase(user, db.getUsername()) && estudianteRepositorio.existsByUsername(user)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + user);
+    private static final int LOTE_INSERT = 500;   // filas por flush/clear del contexto de persistencia
+    private static final int LOTE_CONSULTA = 1000;
+
+    /** Importa un arreglo JSON de estudiantes; la fila del reporte es la posición (1-based). */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteImportacion importar(List<Estudiante> filas) {
+        List<Integer> numeros = new ArrayList<>(filas.size());
+        for (int i = 1; i <= filas.size(); i++) numeros.add(i);
+        return importar(filas, numeros, Map.of());
+    }
+
+    /**
+     * Importa un CSV con cabecera (nombre,apellido,email,username,password,codigo,carrera,ciclo,estaActivo).
+     * La fila del reporte es la línea del archivo.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteImportacion importarCsv(Reader reader) throws IOException {
+        LectorCsv csv = new LectorCsv(reader);
+        List<Estudiante> filas = new ArrayList<>();
+        List<Integer> numeros = new ArrayList<>();
+        Map<Integer, String> ilegibles = new HashMap<>();
+        Map<String, String> r;
+        while ((r = csv.siguiente()) != null) {
+            numeros.add(csv.fila());
+            if (csv.error() != null) {
+                ilegibles.put(filas.size(), csv.error());
+                filas.add(null);
+                continue;
             }
-            db.setUsername(user);
+            Estudiante e = new Estudiante();
+            e.setNombre(r.get("nombre"));
+            e.setApellido(r.get("apellido"));
+            e.setEmail(r.get("email"));
+            e.setUsername(r.get("username"));
+            e.setPassword(r.get("password"));
+            e.setCodigo(r.get("codigo"));
+            e.setCarrera(r.get("carrera"));
+            e.setCiclo(r.get("ciclo"));
+            e.setEstaActivo(r.get("estaActivo") == null || Boolean.parseBoolean(r.get("estaActivo")));
+            filas.add(e);
         }
+        return importar(filas, numeros, ilegibles);
+    }
 
-        // código con unicidad
-        if (cambios.containsKey("codigo") && cambios.get("codigo") != null) {
-            String cod = trimOrNull(String.valueOf(cambios.get("codigo")));
-            if (!equalsIgnoreCase(cod, db.getCodigo()) && estudianteRepositorio.existsByCodigo(cod)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Código ya existe: " + cod);
+    /*
+     * 1) valida cada fila y detecta duplicados dentro del lote (las null son filas vacías o, si están en
+     *    ilegibles, registros CSV que no se pudieron leer),
+     * 2) comprueba unicidad contra BD con una consulta IN por columna,
+     * 3) hashea passwords con paralelismo acotado e inserta en lotes (batch JDBC de Hibernate).
+     * Sin transacción hasta el paso 3: las consultas IN usan la suya y BCrypt corre sin retener una conexión;
+     * sólo los INSERT van en una transacción. Las filas con error (incluido un hash rechazado por PoolHash) se reportan y no abortan la importación.
+     */
+    private ReporteImportacion importar(List<Estudiante> filas, List<Integer> numeros, Map<Integer, String> ilegibles) {
+        TipoUsuario rol = resolverTipoUsuarioEstudiante(null);
+        List<ReporteImportacion.ErrorFila> errores = new ArrayList<>();
+        Map<Integer, Estudiante> candidatas = new LinkedHashMap<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> codigos = new HashSet<>();
+
+        for (int i = 0; i < filas.size(); i++) {
+            Estudiante e = filas.get(i);
+            int fila = numeros.get(i);
+            if (e == null) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, ilegibles.getOrDefault(i, "Fila vacía")));
+                continue;
+            }
+            Normalizacion.estudiante(e);
+            String invalida = validarFila(e);
+            if (invalida != null) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, invalida));
+            } else if (!emails.add(Normalizacion.clave(e.getEmail()))) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Email repetido en el lote: " + e.getEmail()));
+            } else if (!usernames.add(Normalizacion.clave(e.getUsername()))) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Username repetido en el lote: " + e.getUsername()));
+            } else if (!codigos.add(e.getCodigo())) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Código repetido en el lote: " + e.getCodigo()));
+            } else {
+                candidatas.put(i, e);
             }
-            db.setCodigo(cod);
         }
 
-        // password (hash si llega)
-        if (cambios.containsKey("password") && cambios.get("password") != null) {
-            String raw = String.valueOf(cambios.get("password"));
-            if (!raw.isBlank()) db.setPassword(passwordEncoder.encode(raw));
+        Set<String> emailsBd = existentes(emails, estudianteRepositorio::findEmailsExistentes);
+        Set<String> usernamesBd = existentes(usernames, estudianteRepositorio::findUsernamesExistentes);
+        Set<String> codigosBd = existentes(codigos, estudianteRepositorio::findCodigosExistentes);
+
+        List<Estudiante> sinHash = new ArrayList<>(candidatas.size());
+        List<Integer> filasSinHash = new ArrayList<>(candidatas.size());
+        candidatas.forEach((i, e) -> {
+            int fila = numeros.get(i);
+            if (emailsBd.contains(Normalizacion.clave(e.getEmail()))) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Email ya existe: " + e.getEmail()));
+            } else if (usernamesBd.contains(Normalizacion.clave(e.getUsername()))) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Username ya existe: " + e.getUsername()));
+            } else if (codigosBd.contains(e.getCodigo())) {
+                errores.add(new ReporteImportacion.ErrorFila(fila, "Código ya existe: " + e.getCodigo()));
+            } else {
+                sinHash.add(e);
+                filasSinHash.add(fila);
+            }
+        });
+
+        List<Estudiante> validas = hashear(sinHash, filasSinHash, errores);
+        transaccion.executeWithoutResult(estado -> insertar(validas, rol));
+
+        errores.sort(Comparator.comparingInt(ReporteImportacion.ErrorFila::getFila));
+        return new ReporteImportacion(filas.size(), validas.size(), errores);
+    }
+
+    // INSERT en lotes JDBC de Hibernate (hibernate.jdbc.batch_size) con ids por bloques de la secuencia
+    private void insertar(List<Estudiante> validas, TipoUsuario rol) {
+        for (int i = 0; i < validas.size(); i++) {
+            Estudiante e = validas.get(i);
+            e.setId(null);
+            if (e.getEstaActivo() == null) e.setEstaActivo(true);
+            e.setTipoUsuario(rol);
+            entityManager.persist(e);
+            if ((i + 1) % LOTE_INSERT == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
         }
+        entityManager.flush();
+        entityManager.clear();
+    }
 
-        // activo
-        putIfBoolean(cambios, "estaActivo", db::setEstaActivo);
+    /*
+     * BCrypt domina el coste de la importación. Todas las importaciones comparten hashImportacion, con la
+     * mitad de los hilos de PoolHash: por muchas que corran a la vez, la otra mitad queda para el login
+     * (con un solo hilo no hay mitad que reservar). Si aun así PoolHash rechaza (429) se reintenta tras su
+     * Retry-After; si persiste, la fila se reporta.
+     */
+    private static final int INTENTOS_HASH = 3;
+    private static final long PAUSA_HASH_MS = 1000;
+
+    private static ExecutorService ejecutorHash(int hilos) {
+        AtomicInteger secuencia = new AtomicInteger();
+        return Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "importacion-hash-" + secuencia.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-        // otros
-        putIfString(cambios, "carrera", v -> db.setCarrera(trimOrNull(v)));
-        putIfString(cambios, "ciclo", v -> db.setCiclo(trimOrNull(v)));
+    @PreDestroy
+    public void cerrar() {
+        hashImportacion.shutdownNow();
+    }
 
-        // tipoUsuario por id o nombre (sólo ESTUDIANTE)
-        if (cambios.containsKey("tipoUsuarioId") && cambios.get("tipoUsuarioId") != null) {
-            Long tid = toLong(cambios.get("tipoUsuarioId"));
-            TipoUsuario tu = tipoUsuarioRepositorio.findById(tid)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + tid));
-            if (!ROL_ESTUDIANTE.equalsIgnoreCase(tu.getNombre())) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol inválido para Estudiante: " + tu.getNombre());
+    private List<Estudiante> hashear(List<Estudiante> filas, List<Integer> numeros,
+                                     List<ReporteImportacion.ErrorFila> errores) {
+        if (filas.isEmpty()) return filas;
+        List<Future<String>> hashes = new ArrayList<>(filas.size());
+        try {
+            for (Estudiante e : filas) {
+                String raw = e.getPassword();
+                hashes.add(hashImportacion.submit(() -> codificarConReintento(raw)));
             }
-            db.setTipoUsuario(tu);
-        } else if (cambios.containsKey("tipoUsuarioNombre") && cambios.get("tipoUsuarioNombre") != null) {
-            String nom = normalize(String.valueOf(cambios.get("tipoUsuarioNombre")));
-            if (!ROL_ESTUDIANTE.equalsIgnoreCase(nom)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol inválido para Estudiante: " + nom);
+            List<Estudiante> hasheadas = new ArrayList<>(filas.size());
+            for (int i = 0; i < filas.size(); i++) {
+                try {
+                    filas.get(i).setPassword(hashes.get(i).get());
+                    hasheadas.add(filas.get(i));
+                } catch (ExecutionException ex) {
+                    String motivo = ex.getCause() instanceof ResponseStatusException rse && rse.getReason() != null
+                            ? rse.getReason() : String.valueOf(ex.getCause());
+                    errores.add(new ReporteImportacion.ErrorFila(numeros.get(i), "No se pudo procesar el password: " + motivo));
+                }
             }
-            TipoUsuario tu = tipoUsuarioRepositorio.findByNombre(nom)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom));
-            db.setTipoUsuario(tu);
+            return hasheadas;
+        } catch (InterruptedException ex) {
+            hashes.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Operación interrumpida");
         }
+    }
 
-        return db;
+    private String codificarConReintento(String raw) throws InterruptedException {
+        for (int intento = 1; ; intento++) {
+            try {
+                return passwordEncoder.encode(raw);
+            } catch (ResponseStatusException ex) {
+                if (ex.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS || intento == INTENTOS_HASH) throw ex;
+                Thread.sleep(PAUSA_HASH_MS);
+            }
+        }
+    }
+
+    private String validarFila(Estudiante e) {
+        Set<ConstraintViolation<Estudiante>> violaciones = validator.validate(e);
+        if (violaciones.isEmpty()) return null;
+        StringJoiner sj = new StringJoiner("; ");
+        violaciones.forEach(v -> sj.add(v.getPropertyPath() + ": " + v.getMessage()));
+        return sj.toString();
+    }
+
+    /* Consulta IN por columna; se trocea sólo para no exceder el límite de parámetros del driver. */
+    private Set<String> existentes(Set<String> valores, Function<Collection<String>, List<String>> consulta) {
+        Set<String> out = new HashSet<>();
+        List<String> todos = new ArrayList<>(valores);
+        for (int i = 0; i < todos.size(); i += LOTE_CONSULTA) {
+            out.addAll(consulta.apply(todos.subList(i, Math.min(i + LOTE_CONSULTA, todos.size()))));
+        }
+        return out;
     }
 
     /* ===================== Helpers ===================== */
@@ -199,16 +477,16 @@ public class EstudianteServicio {
         TipoUsuario tu;
         if (entrada == null) {
             // Por regla de negocio no auto-creamos roles aquí (solo ADMIN por API de tipos puede crearlos).
-            tu = tipoUsuarioRepositorio.findByNombre(ROL_ESTUDIANTE)
+            tu = tipoUsuarioRegistro.porNombre(ROL_ESTUDIANTE)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "Debe existir el tipo de usuario ESTUDIANTE. Pídale al ADMIN crearlo."));
         } else if (entrada.getId() != null) {
-            tu = tipoUsuarioRepositorio.findById(entrada.getId())
+            tu = tipoUsuarioRegistro.porId(entrada.getId())
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + entrada.getId()));
         } else if (entrada.getNombre() != null) {
-            String nom = normalize(entrada.getNombre());
-            tu = tipoUsuarioRepositorio.findByNombre(nom)
+            String nom = Normalizacion.rol(entrada.getNombre());
+            tu = tipoUsuarioRegistro.porNombre(nom)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom));
         } else {
@@ -221,43 +499,4 @@ public class EstudianteServicio {
         return tu;
     }
 
-    private void putIfString(Map<String, Object> map, String key, java.util.function.Consumer<String> setter) {
-        if (map.containsKey(key) && map.get(key) != null) setter.accept(String.valueOf(map.get(key)));
-    }
-
-    private void putIfBoolean(Map<String, Object> map, String key, java.util.function.Consumer<Boolean> setter) {
-        if (map.containsKey(key) && map.get(key) != null) {
-            Object v = map.get(key);
-            if (v instanceof Boolean b) setter.accept(b);
-            else setter.accept(Boolean.valueOf(String.valueOf(v)));
-        }
-    }
-
-    private Long toLong(Object v) {
-        if (v instanceof Number) return ((Number) v).longValue();
-        return Long.valueOf(String.valueOf(v));
-    }
-
-    private void normaliza(Estudiante e) {
-        e.setNombre(trimOrNull(e.getNombre()));
-        e.setApellido(trimOrNull(e.getApellido()));
-        e.setEmail(trimOrNull(e.getEmail()));
-        e.setUsername(trimOrNull(e.getUsername()));
-        e.setCodigo(trimOrNull(e.getCodigo()));
-        e.setCarrera(trimOrNull(e.getCarrera()));
-        e.setCiclo(trimOrNull(e.getCiclo()));
-        if (e.getTipoUsuario() != null && e.getTipoUsuario().getNombre() != null) {
-            e.getTipoUsuario().setNombre(normalize(e.getTipoUsuario().getNombre()));
-        }
-    }
-
-    private String trimOrNull(String s) { return s == null ? null : s.trim(); }
-
-    private boolean equalsIgnoreCase(String a, String b) {
-        return Objects.equals(a == null ? null : a.toLowerCase(), b == null ? null : b.toLowerCase());
-    }
-
-    private String normalize(String x) {
-        return x == null ? null : x.trim().toUpperCase().replace(' ', '_');
-    }
 }
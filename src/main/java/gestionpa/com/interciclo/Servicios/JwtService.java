@@ -12,12 +12,17 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final long DURACION_MS = 1000 * 60 * 60; // 1 hora
+
     // Usa una clave fuerte desde variables de entorno o config segura
     private static final String SECRET_KEY = "claveMuySecretaDeAlMenos256bitsClaveMuySecretaDeAlMenos256bits";
 
+    // La clave y el parser son inmutables y thread-safe: se construyen una sola vez
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
     private Key getSigningKey() {
-        byte[] keyBytes = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String extractUsername(String token) {
@@ -30,30 +35,40 @@ public class JwtService {
     }
 
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public boolean validarToken(String token) {
+    /**
+     * Verifica firma y expiración en un único parseo.
+     * @return los claims del token, o null si es inválido o ha expirado
+     */
+    public Claims validarYExtraer(String token) {
         try {
             Claims c = getClaims(token);
             Date exp = c.getExpiration();
-            return exp != null && exp.after(new Date());
+            return (exp != null && exp.after(new Date())) ? c : null;
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
 
+    public boolean validarToken(String token) {
+        return validarYExtraer(token) != null;
+    }
+
     public String generateToken(String username, String tipoUsuario) {
+        return generateToken(username, tipoUsuario, 0);
+    }
+
+    /** @param generacion generación de revocación del usuario al emitir (claim "gen", ver RevocacionTokens) */
+    public String generateToken(String username, String tipoUsuario, long generacion) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(username)
                 .claim("tipoUsuario", tipoUsuario)
+                .claim("gen", generacion)
                 .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + 1000 * 60 * 60)) // 1 hora
+                .setExpiration(new Date(now + DURACION_MS))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -0,0 +1,158 @@
+package gestionpa.com.interciclo.Servicios;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector CSV incremental: lee registro a registro sin cargar el archivo completo.
+ * La primera línea es la cabecera. Admite ',' o ';' como separador (se detecta en la cabecera),
+ * comillas dobles con "" escapado y saltos de línea dentro de campos entre comillas.
+ * Un registro no pasa de {@link #MAX_REGISTRO} caracteres ni de {@link #MAX_LINEAS} líneas: una comilla
+ * suelta no arrastra el resto de la subida, el registro se marca con {@link #error()} y la lectura sigue
+ * en la línea siguiente a la suya.
+ */
+public class LectorCsv {
+
+    static final int MAX_REGISTRO = 64 * 1024;
+    static final int MAX_LINEAS = 1000;
+
+    private final BufferedReader in;
+    private final char separador;
+    private final List<String> cabecera;
+    private int linea;        // línea física leída hasta ahora
+    private int filaActual;   // línea donde empieza el último registro devuelto
+    private int camposActual; // campos del último registro devuelto, antes de ajustarlo a la cabecera
+    private String errorActual;
+
+    public LectorCsv(Reader reader) throws IOException {
+        this.in = (reader instanceof BufferedReader b) ? b : new BufferedReader(reader, 64 * 1024);
+        String primera = in.readLine();
+        if (primera == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV vacío: falta la cabecera");
+        linea = 1;
+        if (!primera.isEmpty() && primera.charAt(0) == '\uFEFF') primera = primera.substring(1); // BOM
+        this.separador = (primera.indexOf(';') >= 0 && primera.indexOf(',') < 0) ? ';' : ',';
+        List<String> campos = partir(primera);
+        List<String> normalizada = new ArrayList<>(campos.size());
+        for (String c : campos) normalizada.add(c.trim());
+        this.cabecera = List.copyOf(normalizada);
+    }
+
+    public List<String> cabecera() {
+        return cabecera;
+    }
+
+    /** Línea (1-based) donde empieza el último registro devuelto por {@link #siguiente()}. */
+    public int fila() {
+        return filaActual;
+    }
+
+    /** Campos que traía el último registro; si no coincide con la cabecera, faltan o sobran valores. */
+    public int campos() {
+        return camposActual;
+    }
+
+    /**
+     * Motivo por el que el último registro no se pudo leer entero (comillas sin cerrar o demasiado largo),
+     * o null. En ese caso el registro devuelto sólo trae los campos de su primera línea.
+     */
+    public String error() {
+        return errorActual;
+    }
+
+    /** @return el siguiente registro como columna -> valor (vacío = null), o null al final */
+    public Map<String, String> siguiente() throws IOException {
+        String l;
+        do {
+            l = in.readLine();
+            if (l == null) return null;
+            linea++;
+        } while (l.isBlank());
+        filaActual = linea;
+        errorActual = null;
+        if (l.length() > MAX_REGISTRO) {
+            errorActual = "El registro supera " + MAX_REGISTRO / 1024 + " KB";
+            l = l.substring(0, MAX_REGISTRO);
+        }
+
+        // Un campo entre comillas puede abarcar varias líneas; la paridad de comillas se arrastra línea a
+        // línea para no volver a recorrer el registro acumulado
+        StringBuilder registro = new StringBuilder(l);
+        boolean abiertas = errorActual == null && comillasAbiertas(l, false);
+        if (abiertas) in.mark(2 * MAX_REGISTRO + 2 * MAX_LINEAS);
+        int lineas = 1;
+        while (abiertas) {
+            String mas = in.readLine();
+            if (mas != null) linea++;
+            if (mas == null || registro.length() + mas.length() >= MAX_REGISTRO || ++lineas > MAX_LINEAS) {
+                errorActual = "Comillas sin cerrar: el campo no termina antes de "
+                        + (mas == null ? "el final del archivo" : MAX_REGISTRO / 1024 + " KB o " + MAX_LINEAS + " líneas");
+                volverTrasLaPrimeraLinea();
+                registro.setLength(l.length());
+                break;
+            }
+            registro.append('\n').append(mas);
+            abiertas = comillasAbiertas(mas, true);
+        }
+
+        List<String> valores = partir(registro.toString());
+        camposActual = valores.size();
+        Map<String, String> fila = new LinkedHashMap<>(cabecera.size() * 2);
+        for (int i = 0; i < cabecera.size(); i++) {
+            String v = i < valores.size() ? valores.get(i).trim() : "";
+            fila.put(cabecera.get(i), v.isEmpty() ? null : v);
+        }
+        return fila;
+    }
+
+    /* Las líneas leídas como continuación vuelven a leerse como registros propios. */
+    private void volverTrasLaPrimeraLinea() {
+        try {
+            in.reset();
+            linea = filaActual;
+        } catch (IOException marcaPerdida) {
+            // una sola línea más larga que la marca: se sigue tras ella, las anteriores quedan en el error
+        }
+    }
+
+    /** ¿Quedan comillas abiertas al final de {@code s}, si al empezar estaban {@code dentro}? */
+    private static boolean comillasAbiertas(CharSequence s, boolean dentro) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '"') dentro = !dentro;
+        }
+        return dentro;
+    }
+
+    private List<String> partir(String s) {
+        List<String> out = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean dentro = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (dentro) {
+                if (c == '"') {
+                    if (i + 1 < s.length() && s.charAt(i + 1) == '"') { actual.append('"'); i++; }
+                    else dentro = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                dentro = true;
+            } else if (c == separador) {
+                out.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        out.add(actual.toString());
+        return out;
+    }
+}
@@ -0,0 +1,63 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.Tutor;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/** Normalización de texto compartida por los servicios (antes duplicada en cada uno). */
+public final class Normalizacion {
+
+    private Normalizacion() {
+    }
+
+    public static String trimOrNull(String s) {
+        return s == null ? null : s.trim();
+    }
+
+    /**
+     * Clave de comparación sin mayúsculas para email y username. Coincide con el {@code upper()} de las
+     * consultas IgnoreCase de Spring Data y de los índices funcionales de EsquemaPostgres sólo en ASCII,
+     * y por eso las entidades no admiten otros caracteres en esos campos: fuera de ASCII el {@code upper()}
+     * de PostgreSQL depende de LC_CTYPE (con "C" no cambia "é") y nunca expande ("ß" sigue igual, aquí "SS").
+     * Queda una excepción conocida: con LC_CTYPE turco {@code upper('i')} es "İ".
+     */
+    public static String clave(String s) {
+        return s == null ? null : s.toUpperCase(Locale.ROOT);
+    }
+
+    public static boolean mismaClave(String a, String b) {
+        return Objects.equals(clave(a), clave(b));
+    }
+
+    /** Nombre de rol canónico: " tutor academico" -> "TUTOR_ACADEMICO". */
+    public static String rol(String x) {
+        return x == null ? null : x.trim().toUpperCase().replace(' ', '_');
+    }
+
+    public static void tutor(Tutor t) {
+        t.setNombre(trimOrNull(t.getNombre()));
+        t.setApellido(trimOrNull(t.getApellido()));
+        t.setEmail(trimOrNull(t.getEmail()));
+        t.setUsername(trimOrNull(t.getUsername()));
+        t.setTituloAcademico(trimOrNull(t.getTituloAcademico()));
+        t.setDepartamento(trimOrNull(t.getDepartamento()));
+        if (t.getTipoUsuario() != null && t.getTipoUsuario().getNombre() != null) {
+            t.getTipoUsuario().setNombre(rol(t.getTipoUsuario().getNombre()));
+        }
+    }
+
+    public static void estudiante(Estudiante e) {
+        e.setNombre(trimOrNull(e.getNombre()));
+        e.setApellido(trimOrNull(e.getApellido()));
+        e.setEmail(trimOrNull(e.getEmail()));
+        e.setUsername(trimOrNull(e.getUsername()));
+        e.setCodigo(trimOrNull(e.getCodigo()));
+        e.setCarrera(trimOrNull(e.getCarrera()));
+        e.setCiclo(trimOrNull(e.getCiclo()));
+        if (e.getTipoUsuario() != null && e.getTipoUsuario().getNombre() != null) {
+            e.getTipoUsuario().setNombre(rol(e.getTipoUsuario().getNombre()));
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.LoteProyectoEventos;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flujo SSE de los ProyectoEvento confirmados (alta, cambio, baja) para no tener que sondear GET /api/proyectos.
+ *
+ * <ul>
+ *   <li>Cada evento recibe un id creciente y se guarda en un buffer circular de {@code app.eventos.buffer} entradas.
+ *       Con Last-Event-ID el cliente recibe lo que se perdió; si ese id ya salió del buffer (o es de otro
+ *       arranque) recibe un evento {@code reinicio} y debe volver a leer el listado.</li>
+ *   <li>Un único hilo despacha: réplica y eventos nuevos llegan en orden y sin duplicados.</li>
+ *   <li>Cada cliente tiene su cola acotada; si un cliente lento la llena se le cierra el flujo (vuelve a
+ *       conectar con su Last-Event-ID) en vez de frenar a los demás.</li>
+ * </ul>
+ * Los eventos son de esta instancia: con varias réplicas de la aplicación cada una emite sólo sus escrituras.
+ */
+@Slf4j
+@Service
+public class ProyectoEventosServicio {
+
+    public static final String EVENTO_REINICIO = "reinicio";
+
+    private record Registro(long id, ProyectoEvento evento) {}
+
+    /** Sólo la toca el hilo despachador, salvo {@code sink}. */
+    private static final class Suscripcion {
+        final Sinks.Many<Registro> sink;
+        final Long tutorId;
+        final EstadoProyecto estado;
+        long ultimo;
+
+        Suscripcion(Sinks.Many<Registro> sink, Long tutorId, EstadoProyecto estado) {
+            this.sink = sink;
+            this.tutorId = tutorId;
+            this.estado = estado;
+        }
+
+        boolean acepta(ProyectoEvento e) {
+            if (tutorId != null && !tutorId.equals(e.getTutorId())) return false;
+            // por estado entran los que llegan a él y los que salen de él
+            return estado == null || estado == e.getEstado() || estado == e.getEstadoAnterior();
+        }
+    }
+
+    private final int capacidad;
+    private final int colaPorCliente;
+    private final int maxSuscriptores;
+    private final Duration latido;
+    private final Duration duracionMaxima;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Registro> buffer;
+    // Los ids parten del reloj del arranque: un Last-Event-ID de una ejecución anterior nunca coincide
+    private long ultimoId = System.currentTimeMillis();
+
+    private final Set<Suscripcion> suscripciones = ConcurrentHashMap.newKeySet();
+    // cuenta desde suscribir (suscripciones se llena después, en el despachador) hasta que el flujo termina
+    private final AtomicInteger conectados = new AtomicInteger();
+    private final ExecutorService despachador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "proyecto-eventos");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ProyectoEventosServicio(MeterRegistry registry,
+                                   @Value("${app.eventos.buffer:1000}") int capacidad,
+                                   @Value("${app.eventos.cola-por-cliente:256}") int colaPorCliente,
+                                   @Value("${app.eventos.max-suscriptores:1000}") int maxSuscriptores,
+                                   @Value("${app.eventos.latido-segundos:20}") long latidoSegundos,
+                                   @Value("${app.eventos.duracion-minutos:30}") long duracionMinutos) {
+        this.capacidad = capacidad;
+        this.colaPorCliente = colaPorCliente;
+        this.maxSuscriptores = maxSuscriptores;
+        this.latido = Duration.ofSeconds(latidoSegundos);
+        this.duracionMaxima = Duration.ofMinutes(duracionMinutos);
+        this.buffer = new ArrayDeque<>(capacidad);
+        Gauge.builder("app.eventos.suscriptores", conectados, AtomicInteger::get)
+                .description("Clientes conectados a /api/proyectos/eventos")
+                .register(registry);
+    }
+
+    @TransactionalEventListener
+    public void alConfirmar(ProyectoEvento evento) {
+        Registro r;
+        lock.lock();
+        try {
+            r = new Registro(++ultimoId, evento);
+            if (buffer.size() == capacidad) buffer.removeFirst();
+            buffer.addLast(r);
+        } finally {
+            lock.unlock();
+        }
+        despachador.execute(() -> entregar(r));
+    }
+
+    /** Un lote entra al buffer con un solo lock y se entrega en una sola tarea del despachador. */
+    @TransactionalEventListener
+    public void alConfirmar(LoteProyectoEventos lote) {
+        List<Registro> registros = new ArrayList<>(lote.getEventos().size());
+        lock.lock();
+        try {
+            for (ProyectoEvento evento : lote.getEventos()) {
+                Registro r = new Registro(++ultimoId, evento);
+                if (buffer.size() == capacidad) buffer.removeFirst();
+                buffer.addLast(r);
+                registros.add(r);
+            }
+        } finally {
+            lock.unlock();
+        }
+        despachador.execute(() -> registros.forEach(this::entregar));
+    }
+
+    /**
+     * Flujo de un cliente: primero lo pendiente desde {@code desdeId} (si se indica), luego los eventos nuevos,
+     * con un comentario de latido periódico. Termina tras {@code app.eventos.duracion-minutos}; el cliente
+     * reconecta con Last-Event-ID sin perder eventos.
+     */
+    public Flux<ServerSentEvent<ProyectoEvento>> suscribir(Long desdeId, Long tutorId, EstadoProyecto estado) {
+        if (conectados.incrementAndGet() > maxSuscriptores) {
+            conectados.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiados clientes conectados a eventos");
+        }
+        Suscripcion s = new Suscripcion(
+                Sinks.many().unicast().onBackpressureBuffer(Queues.<Registro>get(colaPorCliente).get()), tutorId, estado);
+        // sin Last-Event-ID se parte de ahora, fijado aquí: lo confirmado antes de que corra iniciar también llega
+        long desde = desdeId != null ? desdeId : ultimoId();
+        despachador.execute(() -> iniciar(s, desde));
+
+        Flux<ServerSentEvent<ProyectoEvento>> eventos = s.sink.asFlux()
+                .map(ProyectoEventosServicio::aSse)
+                .doFinally(senal -> {
+                    suscripciones.remove(s);
+                    conectados.decrementAndGet();
+                });
+        Flux<ServerSentEvent<ProyectoEvento>> latidos = Flux.interval(latido)
+                .map(i -> ServerSentEvent.<ProyectoEvento>builder().comment("latido").build());
+        return Flux.merge(eventos, latidos).take(duracionMaxima);
+    }
+
+    private long ultimoId() {
+        lock.lock();
+        try {
+            return ultimoId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscripciones.forEach(s -> s.sink.tryEmitComplete());
+        despachador.shutdownNow();
+    }
+
+    /* ===================== Hilo despachador ===================== */
+
+    private void iniciar(Suscripcion s, long desde) {
+        List<Registro> pendientes = new ArrayList<>();
+        boolean hueco;
+        lock.lock();
+        try {
+            s.ultimo = ultimoId;
+            long primero = buffer.isEmpty() ? ultimoId + 1 : buffer.peekFirst().id();
+            hueco = desde > ultimoId || desde < primero - 1;
+            if (!hueco) {
+                for (Registro r : buffer) {
+                    if (r.id() > desde) pendientes.add(r);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (hueco && !emitir(s, new Registro(s.ultimo, null))) return;
+        for (Registro r : pendientes) {
+            if (s.acepta(r.evento()) && !emitir(s, r)) return;
+        }
+        suscripciones.add(s);
+    }
+
+    private void entregar(Registro r) {
+        for (Suscripcion s : suscripciones) {
+            if (r.id() <= s.ultimo) continue; // ya enviado en la réplica de iniciar
+            s.ultimo = r.id();
+            if (s.acepta(r.evento()) && !emitir(s, r)) suscripciones.remove(s);
+        }
+    }
+
+    private boolean emitir(Suscripcion s, Registro r) {
+        Sinks.EmitResult resultado = s.sink.tryEmitNext(r);
+        if (resultado.isSuccess()) return true;
+        if (resultado == Sinks.EmitResult.FAIL_OVERFLOW) {
+            log.debug("Cliente de eventos lento: se cierra su flujo (reconectará con Last-Event-ID)");
+            s.sink.tryEmitComplete();
+        }
+        return false;
+    }
+
+    private static ServerSentEvent<ProyectoEvento> aSse(Registro r) {
+        if (r.evento() == null) {
+            return ServerSentEvent.<ProyectoEvento>builder().id(Long.toString(r.id())).event(EVENTO_REINICIO).build();
+        }
+        return ServerSentEvent.<ProyectoEvento>builder()
+                .id(Long.toString(r.id()))
+                .event(r.evento().getTipo().name())
+                .data(r.evento())
+                .build();
+    }
+}
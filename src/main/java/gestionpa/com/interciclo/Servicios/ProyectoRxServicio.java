@@ -0,0 +1,74 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.ProyectoResumen;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Listado resumido de proyectos por R2DBC: la misma consulta keyset que ProyectoServicio.listarResumen
+ * (ver ProyectoRepositorio.findResumenes) sin ocupar un hilo mientras espera a la base de datos.
+ * Sólo lectura; altas y cambios siguen por ProyectoServicio (JPA).
+ */
+@Service
+@ConditionalOnProperty(name = "app.r2dbc.url")
+public class ProyectoRxServicio {
+
+    private static final String SELECT = "select p.id, p.codigo, p.titulo, p.estado, p.area_tematica, "
+            + "p.calificacion_final, p.fecha_inicio, p.fecha_fin, "
+            + "t.id as tutor_id, t.nombre || ' ' || t.apellido as tutor_nombre, "
+            + "e.id as estudiante_id, e.nombre || ' ' || e.apellido as estudiante_nombre, p.actualizado_en "
+            + "from proyecto p join tutor t on t.id = p.tutor_id join estudiante e on e.id = p.estudiante_id "
+            + "where p.id > :despuesDe";
+
+    private final DatabaseClient db;
+
+    public ProyectoRxServicio(DatabaseClient databaseClientR2dbc) {
+        this.db = databaseClientR2dbc;
+    }
+
+    public Mono<PaginaCursor<ProyectoResumen>> listarResumen(Long despuesDe, Integer tamanio,
+                                                             Long tutorId, EstadoProyecto estado) {
+        int n = PaginaCursor.normalizaTamanio(tamanio);
+        // Filtros opcionales como SQL distinto en vez de ":x is null or ...": cada combinación tiene su propio plan
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (tutorId != null) sql.append(" and p.tutor_id = :tutorId");
+        if (estado != null) sql.append(" and p.estado = :estado");
+        sql.append(" order by p.id limit :limite");
+
+        DatabaseClient.GenericExecuteSpec consulta = db.sql(sql.toString())
+                .bind("despuesDe", despuesDe == null ? 0L : despuesDe)
+                .bind("limite", n + 1);
+        if (tutorId != null) consulta = consulta.bind("tutorId", tutorId);
+        if (estado != null) consulta = consulta.bind("estado", estado.name());
+        return consulta.map(ProyectoRxServicio::resumen)
+                .all()
+                .collectList()
+                .map(filas -> PaginaCursor.de(filas, n, ProyectoResumen::getId));
+    }
+
+    private static ProyectoResumen resumen(Readable fila) {
+        return new ProyectoResumen(
+                fila.get("id", Long.class),
+                fila.get("codigo", String.class),
+                fila.get("titulo", String.class),
+                EstadoProyecto.valueOf(fila.get("estado", String.class)),
+                fila.get("area_tematica", String.class),
+                fila.get("calificacion_final", BigDecimal.class),
+                fila.get("fecha_inicio", LocalDate.class),
+                fila.get("fecha_fin", LocalDate.class),
+                fila.get("tutor_id", Long.class),
+                fila.get("tutor_nombre", String.class),
+                fila.get("estudiante_id", Long.class),
+                fila.get("estudiante_nombre", String.class),
+                fila.get("actualizado_en", LocalDateTime.class));
+    }
+}
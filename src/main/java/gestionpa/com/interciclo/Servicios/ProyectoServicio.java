@@ -1,61 +1,122 @@
 package gestionpa.com.interciclo.Servicios;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import gestionpa.com.interciclo.DTO.CambioEstadoProyectos;
+import gestionpa.com.interciclo.DTO.LoteProyectoEventos;
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.ProyectoCalificacion;
+import gestionpa.com.interciclo.DTO.ProyectoCoincidencia;
+import gestionpa.com.interciclo.DTO.ProyectoEstado;
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.DTO.ProyectoResumen;
+import gestionpa.com.interciclo.DTO.ReporteCalificaciones;
+import gestionpa.com.interciclo.DTO.ReporteImportacion;
+import gestionpa.com.interciclo.DTO.ResultadoCambioEstado;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.*;
 import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
 import gestionpa.com.interciclo.Repositorios.ProyectoRepositorio;
 import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
-import jakarta.transaction.Transactional;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch.Nulo;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ProyectoServicio {
 
+    /** Tope de proyectos por cambio de estado masivo (ids o filas del filtro). */
+    public static final int MAX_CAMBIO_ESTADO = 1000;
+
+    static final int LOTE_EXPORTACION = 500;
+
     private final ProyectoRepositorio proyectoRepositorio;
     private final TutorRepositorio tutorRepositorio;
     private final EstudianteRepositorio estudianteRepositorio;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventos;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final AplicadorPatch<Proyecto> camposPatch;
 
     public ProyectoServicio(ProyectoRepositorio proyectoRepositorio,
                             TutorRepositorio tutorRepositorio,
-                            EstudianteRepositorio estudianteRepositorio) {
+                            EstudianteRepositorio estudianteRepositorio,
+                            EntityManager entityManager,
+                            ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventos,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
         this.proyectoRepositorio = proyectoRepositorio;
         this.tutorRepositorio = tutorRepositorio;
         this.estudianteRepositorio = estudianteRepositorio;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.eventos = eventos;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.camposPatch = construirCamposPatch();
     }
 
+    /*
+     * Existencia de tutor/estudiante y unicidad de código y estudiante no se consultan antes de escribir:
+     * las garantizan las FK y UNIQUE de la tabla proyecto y GlobalExceptionHandler traduce cada
+     * restricción a su 400/409. Así crear es un solo INSERT. Todo proyecto nace PROPUESTO: los demás estados
+     * se alcanzan con las transiciones de {@link EstadoProyecto#puedePasarA}.
+     */
     public Proyecto crear(Proyecto p) {
-        Long estId = (p.getEstudiante() != null) ? p.getEstudiante().getId() : null;
-        Long tutId = (p.getTutor() != null) ? p.getTutor().getId() : null;
-
-        if (estId == null || !estudianteRepositorio.existsById(estId)) {
+        if (p.getEstudiante() == null || p.getEstudiante().getId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante inválido");
         }
-        if (tutId == null || !tutorRepositorio.existsById(tutId)) {
+        if (p.getTutor() == null || p.getTutor().getId() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tutor inválido");
         }
-        if (proyectoRepositorio.existsByEstudianteId(estId)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "El estudiante ya tiene un proyecto");
+        if (p.getEstado() != EstadoProyecto.PROPUESTO) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Un proyecto nuevo empieza en " + EstadoProyecto.PROPUESTO + ", no en " + p.getEstado());
         }
-        if (p.getCodigo() != null && proyectoRepositorio.findByCodigo(p.getCodigo()).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Código de proyecto duplicado");
-        }
-        return proyectoRepositorio.save(p);
+        Proyecto creado = proyectoRepositorio.save(p);
+        publicar(ProyectoEvento.Tipo.CREADO, creado, null);
+        return creado;
     }
 
-    public Proyecto actualizar(Long id, Proyecto p) {
+    public Proyecto actualizar(Long id, Proyecto p, String ifMatch) {
         Proyecto db = obtenerPorId(id);
-
-        if (p.getCodigo() != null && !p.getCodigo().equals(db.getCodigo())
-            && proyectoRepositorio.findByCodigo(p.getCodigo()).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Código de proyecto duplicado");
-        }
+        versionDe(db).exigir(ifMatch);
+        EstadoProyecto estadoAnterior = db.getEstado();
 
         db.setCodigo(p.getCodigo());
         db.setTitulo(p.getTitulo());
@@ -65,103 +126,362 @@ public class ProyectoServicio {
         db.setPalabrasClave(p.getPalabrasClave());
         db.setFechaInicio(p.getFechaInicio());
         db.setFechaFin(p.getFechaFin());
-        db.setEstado(p.getEstado());
+        pasarA(db, p.getEstado());
         db.setCalificacionFinal(p.getCalificacionFinal());
         db.setUrlRepositorio(p.getUrlRepositorio());
         db.setUrlDocumento(p.getUrlDocumento());
 
+        // Código y estudiante (1–1) los validan las restricciones de la BD, como en crear. Tutor y
+        // estudiante sólo se leen si cambian: la respuesta (y su ETag) necesitan la entidad completa
         if (p.getTutor() != null) {
-            Long tid = p.getTutor().getId();
-            if (tid == null || !tutorRepositorio.existsById(tid)) {
+            if (p.getTutor().getId() == null) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tutor inválido");
             }
-            db.setTutor(p.getTutor());
+            if (!p.getTutor().getId().equals(db.getTutor().getId())) asignarTutor(db, p.getTutor().getId());
         }
         if (p.getEstudiante() != null) {
-            Long eid = p.getEstudiante().getId();
-            if (eid == null || !estudianteRepositorio.existsById(eid)) {
+            if (p.getEstudiante().getId() == null) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante inválido");
             }
-            // Si cambia de estudiante, verifica 1–1
-            if (!eid.equals(db.getEstudiante().getId()) && proyectoRepositorio.existsByEstudianteId(eid)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Ese estudiante ya tiene un proyecto");
-            }
-            db.setEstudiante(p.getEstudiante());
+            if (!p.getEstudiante().getId().equals(db.getEstudiante().getId())) asignarEstudiante(db, p.getEstudiante().getId());
         }
+        publicar(ProyectoEvento.Tipo.ACTUALIZADO, db, estadoAnterior);
         return db;
     }
 
+    @Transactional(readOnly = true)
     public List<Proyecto> listar() {
         return proyectoRepositorio.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public PaginaCursor<Proyecto> listarPagina(Long despuesDe, Integer tamanio) {
+        int n = PaginaCursor.normalizaTamanio(tamanio);
+        List<Proyecto> filas = proyectoRepositorio.findByIdGreaterThanOrderByIdAsc(
+                despuesDe == null ? 0L : despuesDe, Limit.of(n + 1));
+        return PaginaCursor.de(filas, n, Proyecto::getId);
+    }
+
+    /** Listado liviano (proyección con nombres de tutor/estudiante), filtrable por tutor y estado. */
+    @Transactional(readOnly = true)
+    public PaginaCursor<ProyectoResumen> listarResumen(Long despuesDe, Integer tamanio,
+                                                       Long tutorId, EstadoProyecto estado) {
+        int n = PaginaCursor.normalizaTamanio(tamanio);
+        List<ProyectoResumen> filas = proyectoRepositorio.findResumenes(
+                despuesDe == null ? 0L : despuesDe, tutorId, estado, Limit.of(n + 1));
+        return PaginaCursor.de(filas, n, ProyectoResumen::getId);
+    }
+
+    /** Búsqueda por relevancia en título, palabras clave, resumen y objetivos. */
+    @Transactional(readOnly = true)
+    public List<ProyectoCoincidencia> buscar(String texto, Integer limite) {
+        if (texto == null || texto.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro q es obligatorio");
+        }
+        int n = (limite == null || limite < 1) ? 20 : Math.min(limite, 100);
+        return proyectoRepositorio.buscarTextoCompleto(texto.trim(), n);
+    }
+
+    /**
+     * Escribe todos los proyectos como NDJSON (un objeto por línea) leyendo con cursor.
+     * Cada LOTE_EXPORTACION filas se vacía el contexto de persistencia (proyectos y también sus tutores,
+     * estudiantes y roles), así el heap no crece con el número de filas.
+     */
+    @Transactional(readOnly = true)
+    public void exportarNdjson(OutputStream salida) throws IOException {
+        try (Stream<Proyecto> filas = proyectoRepositorio.streamTodos();
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(salida)) {
+            Iterator<Proyecto> it = filas.iterator();
+            int escritas = 0;
+            while (it.hasNext()) {
+                writer.write(it.next());
+                if (++escritas % LOTE_EXPORTACION == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+            if (escritas > 0) salida.write('\n');
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Proyecto obtenerPorId(Long id) {
         return proyectoRepositorio.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Proyecto no encontrado id=" + id));
     }
 
     public void eliminar(Long id) {
-        proyectoRepositorio.deleteById(id);
+        proyectoRepositorio.findById(id).ifPresent(p -> {
+            proyectoRepositorio.delete(p);
+            publicar(ProyectoEvento.Tipo.ELIMINADO, p, p.getEstado());
+        });
     }
 
-    public Proyecto patch(Long id, Map<String, Object> cambios) {
+    /** PATCH parcial; con merge-patch (RFC 7386) un null explícito borra los campos opcionales. */
+    public Proyecto patch(Long id, InputStream cuerpo, boolean mergePatch, String ifMatch) {
         Proyecto db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
+        EstadoProyecto estadoAnterior = db.getEstado();
+        camposPatch.aplicar(db, cuerpo, mergePatch);
+        publicar(ProyectoEvento.Tipo.ACTUALIZADO, db, estadoAnterior);
+        return db;
+    }
 
-        putIfString(cambios, "codigo", db::setCodigo);
-        putIfString(cambios, "titulo", db::setTitulo);
-        putIfString(cambios, "resumen", db::setResumen);
-        putIfString(cambios, "objetivos", db::setObjetivos);
-        putIfString(cambios, "areaTematica", db::setAreaTematica);
-        putIfString(cambios, "palabrasClave", db::setPalabrasClave);
+    private AplicadorPatch<Proyecto> construirCamposPatch() {
+        return AplicadorPatch.<Proyecto>para()
+                .texto("codigo", Nulo.OBLIGATORIO, Proyecto::setCodigo)
+                .texto("titulo", Nulo.OBLIGATORIO, Proyecto::setTitulo)
+                .texto("resumen", Nulo.OBLIGATORIO, Proyecto::setResumen)
+                .texto("objetivos", Nulo.ANULABLE, Proyecto::setObjetivos)
+                .texto("areaTematica", Nulo.ANULABLE, Proyecto::setAreaTematica)
+                .texto("palabrasClave", Nulo.ANULABLE, Proyecto::setPalabrasClave)
+                .fecha("fechaInicio", Nulo.ANULABLE, Proyecto::setFechaInicio)
+                .fecha("fechaFin", Nulo.ANULABLE, Proyecto::setFechaFin)
+                .enumeracion("estado", EstadoProyecto.class, Nulo.OBLIGATORIO, ProyectoServicio::pasarA)
+                .decimal("calificacionFinal", Nulo.ANULABLE, Proyecto::setCalificacionFinal)
+                .texto("urlRepositorio", Nulo.ANULABLE, Proyecto::setUrlRepositorio)
+                .texto("urlDocumento", Nulo.ANULABLE, Proyecto::setUrlDocumento)
+                .entero("tutorId", Nulo.OBLIGATORIO, this::asignarTutor)
+                .entero("estudianteId", Nulo.OBLIGATORIO, this::asignarEstudiante)
+                .construir();
+    }
 
-        if (cambios.containsKey("fechaInicio") && cambios.get("fechaInicio") != null) {
-            db.setFechaInicio(LocalDate.parse(String.valueOf(cambios.get("fechaInicio"))));
+    // Mismas transiciones que el cambio masivo; repetir el estado actual no es un cambio
+    private static void pasarA(Proyecto db, EstadoProyecto destino) {
+        EstadoProyecto actual = db.getEstado();
+        if (destino != null && actual != null && destino != actual && !actual.puedePasarA(destino)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Transición no permitida: " + actual + " -> " + destino);
         }
-        if (cambios.containsKey("fechaFin") && cambios.get("fechaFin") != null) {
-            db.setFechaFin(LocalDate.parse(String.valueOf(cambios.get("fechaFin"))));
-        }
-        if (cambios.containsKey("estado") && cambios.get("estado") != null) {
-            db.setEstado(EstadoProyecto.valueOf(String.valueOf(cambios.get("estado"))));
+        db.setEstado(destino);
+    }
+
+    // Una sola lectura por referencia: la entidad completa hace falta para la respuesta
+    private void asignarTutor(Proyecto db, Long tid) {
+        db.setTutor(tutorRepositorio.findById(tid)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tutor inválido")));
+    }
+
+    private void asignarEstudiante(Proyecto db, Long eid) {
+        db.setEstudiante(estudianteRepositorio.findById(eid)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante inválido")));
+    }
+
+    /* ===================== Cambio de estado masivo ===================== */
+
+    /**
+     * Pasa muchos proyectos a {@code estado} con un SELECT ... FOR UPDATE y un solo UPDATE, sin cargar entidades.
+     * Los que no existen, ya están en ese estado o no admiten la transición ({@link EstadoProyecto#puedePasarA})
+     * vuelven en {@code rechazados}; los demás se aplican y publican su ACTUALIZADO como haría un PATCH, todos
+     * en un solo LoteProyectoEventos.
+     */
+    public ResultadoCambioEstado cambiarEstado(CambioEstadoProyectos cambio) {
+        EstadoProyecto destino = cambio.getEstado();
+        boolean porIds = cambio.getIds() != null && !cambio.getIds().isEmpty();
+        if (porIds == (cambio.getDesde() != null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Indique ids o el filtro desde (con tutorId opcional), uno de los dos");
         }
-        if (cambios.containsKey("calificacionFinal") && cambios.get("calificacionFinal") != null) {
-            db.setCalificacionFinal(toBigDecimal(cambios.get("calificacionFinal")));
+
+        Set<Long> ids = new LinkedHashSet<>();
+        List<ProyectoEstado> filas;
+        if (porIds) {
+            cambio.getIds().stream().filter(Objects::nonNull).forEach(ids::add);
+            if (ids.size() > MAX_CAMBIO_ESTADO) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Máximo " + MAX_CAMBIO_ESTADO + " proyectos por cambio de estado");
+            }
+            filas = proyectoRepositorio.bloquearEstados(ids);
+        } else {
+            if (!cambio.getDesde().puedePasarA(destino)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Transición no permitida: " + cambio.getDesde() + " -> " + destino);
+            }
+            filas = proyectoRepositorio.bloquearEstados(cambio.getDesde(), cambio.getTutorId(),
+                    Limit.of(MAX_CAMBIO_ESTADO + 1));
+            if (filas.size() > MAX_CAMBIO_ESTADO) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El filtro abarca más de "
+                        + MAX_CAMBIO_ESTADO + " proyectos: acótelo con tutorId o envíe ids");
+            }
         }
-        putIfString(cambios, "urlRepositorio", db::setUrlRepositorio);
-        putIfString(cambios, "urlDocumento", db::setUrlDocumento);
 
-        if (cambios.containsKey("tutorId") && cambios.get("tutorId") != null) {
-            Long tid = toLong(cambios.get("tutorId"));
-            if (!tutorRepositorio.existsById(tid)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tutor inválido");
+        List<ProyectoEstado> aplicables = new ArrayList<>();
+        List<ResultadoCambioEstado.Rechazo> rechazados = new ArrayList<>();
+        for (ProyectoEstado f : filas) {
+            ids.remove(f.getId());
+            if (f.getEstado() == destino) {
+                rechazados.add(new ResultadoCambioEstado.Rechazo(f.getId(), "Ya está en " + destino));
+            } else if (!f.getEstado().puedePasarA(destino)) {
+                rechazados.add(new ResultadoCambioEstado.Rechazo(f.getId(),
+                        "Transición no permitida: " + f.getEstado() + " -> " + destino));
+            } else {
+                aplicables.add(f);
             }
-            Tutor t = tutorRepositorio.findById(tid).orElseThrow();
-            db.setTutor(t);
         }
-        if (cambios.containsKey("estudianteId") && cambios.get("estudianteId") != null) {
-            Long eid = toLong(cambios.get("estudianteId"));
-            if (!estudianteRepositorio.existsById(eid)) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estudiante inválido");
+        ids.forEach(id -> rechazados.add(new ResultadoCambioEstado.Rechazo(id, "Proyecto no encontrado")));
+
+        List<Long> aplicados = aplicables.stream().map(ProyectoEstado::getId).toList();
+        if (!aplicados.isEmpty()) {
+            proyectoRepositorio.cambiarEstado(aplicados, destino, LocalDateTime.now());
+            Instant ahora = Instant.now();
+            eventos.publishEvent(new LoteProyectoEventos(aplicables.stream()
+                    .map(f -> new ProyectoEvento(ProyectoEvento.Tipo.ACTUALIZADO, f.getId(), f.getCodigo(),
+                            destino, f.getEstado(), f.getTutorId(), ahora))
+                    .toList()));
+        }
+        return new ResultadoCambioEstado(destino, aplicados, rechazados);
+    }
+
+    /* ===================== Importación de calificaciones ===================== */
+
+    private static final int LOTE_CALIFICACIONES = 1000;
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    private record Calificacion(int fila, BigDecimal valor) {}
+
+    /**
+     * Carga calificacionFinal desde un CSV con cabecera {@code codigo,calificacionFinal} (',' o ';'; se admite
+     * coma decimal). Se lee por lotes de 1000 filas, sin cargar el archivo: un SELECT ... FOR UPDATE por
+     * códigos y un UPDATE por id en lote JDBC, sin entidades. Los valores se validan antes contra la columna
+     * (0–100, 2 decimales); las filas con más o menos campos que la cabecera, inválidas, repetidas o de códigos inexistentes se reportan y no abortan
+     * el resto.
+     *
+     * Cada lote se confirma en su propia transacción: los bloqueos duran un lote y no toda la subida, y si
+     * algo falla a mitad los lotes anteriores ya quedan aplicados.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteCalificaciones importarCalificaciones(Reader reader) throws IOException {
+        LectorCsv csv = new LectorCsv(reader);
+        if (!csv.cabecera().containsAll(List.of("codigo", "calificacionFinal"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El CSV necesita las columnas codigo y calificacionFinal");
+        }
+        List<ReporteImportacion.ErrorFila> errores = new ArrayList<>();
+        Set<String> vistos = new HashSet<>();
+        Map<String, Calificacion> lote = new LinkedHashMap<>();
+        int total = 0;
+        int actualizadas = 0;
+        Map<String, String> r;
+        while ((r = csv.siguiente()) != null) {
+            total++;
+            String codigo = r.get("codigo");
+            String invalida = csv.error() != null ? csv.error()
+                    : csv.campos() != csv.cabecera().size() ? camposDistintos(csv)
+                    : codigo == null ? "codigo vacío" : validarCalificacion(r.get("calificacionFinal"));
+            if (invalida != null) {
+                errores.add(new ReporteImportacion.ErrorFila(csv.fila(), invalida));
+            } else if (!vistos.add(codigo)) {
+                errores.add(new ReporteImportacion.ErrorFila(csv.fila(), "Código repetido en el archivo: " + codigo));
+            } else {
+                lote.put(codigo, new Calificacion(csv.fila(), calificacion(r.get("calificacionFinal"))));
+                if (lote.size() == LOTE_CALIFICACIONES) {
+                    actualizadas += aplicarCalificaciones(lote, errores);
+                    lote.clear();
+                }
             }
-            if (!eid.equals(db.getEstudiante().getId()) && proyectoRepositorio.existsByEstudianteId(eid)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Ese estudiante ya tiene un proyecto");
+        }
+        if (!lote.isEmpty()) actualizadas += aplicarCalificaciones(lote, errores);
+
+        errores.sort(Comparator.comparingInt(ReporteImportacion.ErrorFila::getFila));
+        return new ReporteCalificaciones(total, actualizadas, total - actualizadas - errores.size(), errores);
+    }
+
+    private int aplicarCalificaciones(Map<String, Calificacion> lote, List<ReporteImportacion.ErrorFila> errores) {
+        Integer n = transaccion.execute(estado -> aplicarLote(lote, errores));
+        return n != null ? n : 0;
+    }
+
+    /**
+     * Escribe las que cambian y publica su ACTUALIZADO, como haría un PATCH, en un solo LoteProyectoEventos;
+     * devuelve cuántas escribió. Las filas quedan bloqueadas desde la lectura: entre ella y el UPDATE nadie
+     * cambia la calificación ni la version.
+     */
+    private int aplicarLote(Map<String, Calificacion> lote, List<ReporteImportacion.ErrorFila> errores) {
+        Map<String, ProyectoCalificacion> actuales = new HashMap<>(lote.size() * 2);
+        proyectoRepositorio.bloquearCalificaciones(lote.keySet()).forEach(p -> actuales.put(p.getCodigo(), p));
+
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> filas = new ArrayList<>(lote.size());
+        List<ProyectoCalificacion> cambiados = new ArrayList<>(lote.size());
+        lote.forEach((codigo, c) -> {
+            ProyectoCalificacion p = actuales.get(codigo);
+            if (p == null) {
+                errores.add(new ReporteImportacion.ErrorFila(c.fila(), "Proyecto no encontrado: " + codigo));
+            } else if (p.getCalificacionFinal() == null || p.getCalificacionFinal().compareTo(c.valor()) != 0) {
+                filas.add(new Object[]{c.valor(), ahora, p.getId()});
+                cambiados.add(p);
             }
-            Estudiante e = estudianteRepositorio.findById(eid).orElseThrow();
-            db.setEstudiante(e);
+        });
+        if (filas.isEmpty()) return 0;
+
+        // version y actualizado_en como al guardar la entidad: cambian la ETag y los PUT/PATCH en curso dan 409
+        jdbcTemplate.batchUpdate("update proyecto set calificacion_final = ?, actualizado_en = ?, "
+                + "version = version + 1 where id = ?", filas);
+        Instant instante = Instant.now();
+        eventos.publishEvent(new LoteProyectoEventos(cambiados.stream()
+                .map(p -> new ProyectoEvento(ProyectoEvento.Tipo.ACTUALIZADO, p.getId(), p.getCodigo(),
+                        p.getEstado(), p.getEstado(), p.getTutorId(), instante))
+                .toList()));
+        return filas.size();
+    }
+
+    // Con ',' como separador, "PRJ-1,92,5" son tres campos: leer sólo dos escribiría un 92
+    private static String camposDistintos(LectorCsv csv) {
+        String motivo = "La fila tiene " + csv.campos() + " campos y la cabecera " + csv.cabecera().size();
+        return csv.campos() > csv.cabecera().size()
+                ? motivo + " (¿calificacionFinal con coma decimal? use ';' o comillas)"
+                : motivo;
+    }
+
+    /** null si cabe en calificacion_final (NUMERIC(5,2) con CHECK 0–100); si no, el motivo. */
+    private static String validarCalificacion(String texto) {
+        if (texto == null) return "calificacionFinal vacía";
+        BigDecimal v;
+        try {
+            v = calificacion(texto);
+        } catch (NumberFormatException e) {
+            return "calificacionFinal no es un número: " + texto;
         }
+        if (v.signum() < 0 || v.compareTo(CIEN) > 0) return "calificacionFinal fuera de 0–100: " + texto;
+        if (v.stripTrailingZeros().scale() > 2) return "calificacionFinal admite 2 decimales: " + texto;
+        return null;
+    }
 
-        return db;
+    // Hojas de cálculo en español exportan "92,5"
+    private static BigDecimal calificacion(String texto) {
+        return new BigDecimal(texto.indexOf('.') < 0 ? texto.replace(',', '.') : texto);
     }
 
-    /* Helpers */
-    private void putIfString(Map<String, Object> map, String key, java.util.function.Consumer<String> setter) {
-        if (map.containsKey(key) && map.get(key) != null) setter.accept(String.valueOf(map.get(key)));
+    /* ===================== Versiones (ETag / If-Match) ===================== */
+
+    /** Validadores de GET /{id} con una consulta por PK, sin cargar la entidad. */
+    @Transactional(readOnly = true)
+    public VersionRecurso version(Long id) {
+        return proyectoRepositorio.buscarVersion(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Proyecto no encontrado id=" + id));
+    }
+
+    @Transactional(readOnly = true)
+    public VersionColeccion versionColeccion() {
+        return proyectoRepositorio.versionColeccion();
     }
-    private Long toLong(Object v) {
-        if (v instanceof Number) return ((Number) v).longValue();
-        return Long.valueOf(String.valueOf(v));
+
+    /** La misma versión que {@code version(id)}, desde la entidad ya cargada con tutor y estudiante. */
+    public static VersionRecurso versionDe(Proyecto p) {
+        Tutor t = p.getTutor();
+        Estudiante e = p.getEstudiante();
+        long anidadas = t.getVersion() + e.getVersion()
+                + (t.getTipoUsuario() != null ? t.getTipoUsuario().getVersion() : 0)
+                + (e.getTipoUsuario() != null ? e.getTipoUsuario().getVersion() : 0);
+        return new VersionRecurso(p.getVersion(), anidadas,
+                VersionRecurso.ultima(p.getActualizadoEn(), t.getActualizadoEn(), e.getActualizadoEn()));
     }
-    private java.math.BigDecimal toBigDecimal(Object v) {
-        if (v instanceof BigDecimal) return (BigDecimal) v;
-        return new BigDecimal(String.valueOf(v));
+
+    /* Helpers */
+    private void publicar(ProyectoEvento.Tipo tipo, Proyecto p, EstadoProyecto estadoAnterior) {
+        Long tutorId = p.getTutor() != null ? p.getTutor().getId() : null;
+        eventos.publishEvent(new ProyectoEvento(tipo, p.getId(), p.getCodigo(), p.getEstado(),
+                estadoAnterior, tutorId, Instant.now()));
     }
 }
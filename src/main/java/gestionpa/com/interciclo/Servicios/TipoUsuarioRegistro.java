@@ -0,0 +1,98 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.TipoUsuario;
+import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registro en memoria de TipoUsuario (tabla casi estática) por id y por nombre normalizado.
+ * Se carga completa en la primera consulta y se invalida en cada escritura de tipos
+ * (TipoUsuarioServicio, alta del rol TUTOR/ADMIN). El TTL cubre escrituras hechas por otras instancias.
+ * Devuelve copias desacopladas: los llamadores pueden asignarlas a relaciones @ManyToOne sin riesgo
+ * de modificar el estado compartido.
+ */
+@Service
+public class TipoUsuarioRegistro {
+
+    private record Instantanea(Map<Long, TipoUsuario> porId, Map<String, TipoUsuario> porNombre,
+                               long generacion, long expiraEn) {}
+
+    private final TipoUsuarioRepositorio tipoUsuarioRepositorio;
+    private final long ttlMillis;
+    private final AtomicReference<Instantanea> actual = new AtomicReference<>();
+    // Sube en cada invalidación: una carga que empezó antes queda obsoleta aunque termine después
+    private final AtomicLong generacion = new AtomicLong();
+
+    public TipoUsuarioRegistro(TipoUsuarioRepositorio tipoUsuarioRepositorio,
+                               @Value("${app.tipos-usuario.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.tipoUsuarioRepositorio = tipoUsuarioRepositorio;
+        this.ttlMillis = ttlSegundos * 1000;
+    }
+
+    public Optional<TipoUsuario> porId(Long id) {
+        if (id == null) return Optional.empty();
+        return Optional.ofNullable(instantanea().porId().get(id)).map(this::copia);
+    }
+
+    public Optional<TipoUsuario> porNombre(String nombre) {
+        if (nombre == null) return Optional.empty();
+        return Optional.ofNullable(instantanea().porNombre().get(Normalizacion.rol(nombre))).map(this::copia);
+    }
+
+    /** Descarta el registro ahora y otra vez tras el commit (evita recargar un estado no confirmado). */
+    public void invalidar() {
+        descartar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar();
+                }
+            });
+        }
+    }
+
+    private void descartar() {
+        generacion.incrementAndGet();
+        actual.set(null);
+    }
+
+    /*
+     * Una instantánea sólo vale si se cargó en la generación actual: si invalidar() ocurre mientras otro
+     * hilo carga, lo que ese hilo publique se ignora en la siguiente consulta. El compareAndSet evita
+     * además que una carga lenta pise a otra más reciente.
+     */
+    private Instantanea instantanea() {
+        Instantanea i = actual.get();
+        if (i != null && i.generacion() == generacion.get() && i.expiraEn() > System.currentTimeMillis()) return i;
+        Instantanea nueva = cargar(generacion.get());
+        actual.compareAndSet(i, nueva);
+        return nueva;
+    }
+
+    private Instantanea cargar(long gen) {
+        List<TipoUsuario> todos = tipoUsuarioRepositorio.findAll();
+        Map<Long, TipoUsuario> porId = new HashMap<>();
+        Map<String, TipoUsuario> porNombre = new HashMap<>();
+        for (TipoUsuario t : todos) {
+            TipoUsuario c = copia(t);
+            porId.put(c.getId(), c);
+            if (c.getNombre() != null) porNombre.put(Normalizacion.rol(c.getNombre()), c);
+        }
+        return new Instantanea(Map.copyOf(porId), Map.copyOf(porNombre), gen, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private TipoUsuario copia(TipoUsuario t) {
+        return new TipoUsuario(t.getId(), t.getNombre(), t.getDescripcion(), t.getVersion());
+    }
+}
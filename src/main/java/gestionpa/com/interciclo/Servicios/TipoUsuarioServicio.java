@@ -1,14 +1,18 @@
 package gestionpa.com.interciclo.Servicios;
 
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.TipoUsuario;
 import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
-import jakarta.transaction.Transactional;
+import gestionpa.com.interciclo.Seguridad.RevocacionTokens;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch.Nulo;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -16,20 +20,24 @@ import java.util.Set;
 public class TipoUsuarioServicio {
 
     private final TipoUsuarioRepositorio tipoUsuarioRepositorio;
+    private final TipoUsuarioRegistro tipoUsuarioRegistro;
+    private final RevocacionTokens revocacion;
+    private final AplicadorPatch<TipoUsuario> camposPatch;
 
-    public TipoUsuarioServicio(TipoUsuarioRepositorio tipoUsuarioRepositorio) {
+    public TipoUsuarioServicio(TipoUsuarioRepositorio tipoUsuarioRepositorio,
+                               TipoUsuarioRegistro tipoUsuarioRegistro,
+                               RevocacionTokens revocacion) {
         this.tipoUsuarioRepositorio = tipoUsuarioRepositorio;
+        this.tipoUsuarioRegistro = tipoUsuarioRegistro;
+        this.revocacion = revocacion;
+        this.camposPatch = construirCamposPatch();
     }
 
     // 🚫 No incluimos ADMIN aquí: sólo se permite TUTOR y ESTUDIANTE.
     private static final Set<String> ROLES_PERMITIDOS = Set.of("TUTOR", "ESTUDIANTE");
 
-    private String normalizaRol(String nombre) {
-        return nombre == null ? null : nombre.trim().toUpperCase().replace(' ', '_');
-    }
-
     public TipoUsuario crear(TipoUsuario t) {
-        String rol = normalizaRol(t.getNombre());
+        String rol = Normalizacion.rol(t.getNombre());
         if (rol == null || !ROLES_PERMITIDOS.contains(rol)) {
             // ADMIN queda explícitamente prohibido por servicio
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
@@ -39,12 +47,14 @@ public class TipoUsuarioServicio {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "TipoUsuario ya existe: " + rol);
         }
         t.setNombre(rol);
+        tipoUsuarioRegistro.invalidar();
         return tipoUsuarioRepositorio.save(t);
     }
 
-    public TipoUsuario actualizar(Long id, TipoUsuario t) {
+    public TipoUsuario actualizar(Long id, TipoUsuario t, String ifMatch) {
         TipoUsuario db = obtenerPorId(id);
-        String rol = normalizaRol(t.getNombre());
+        versionDe(db).exigir(ifMatch);
+        String rol = Normalizacion.rol(t.getNombre());
         if (rol == null || !ROLES_PERMITIDOS.contains(rol)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "Tipo de usuario no permitido. Permitidos: " + ROLES_PERMITIDOS);
@@ -52,15 +62,19 @@ public class TipoUsuarioServicio {
         if (!db.getNombre().equalsIgnoreCase(rol) && tipoUsuarioRepositorio.existsByNombre(rol)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "TipoUsuario ya existe: " + rol);
         }
+        revocarSiRenombra(db.getNombre(), rol);
         db.setNombre(rol);
         db.setDescripcion(t.getDescripcion());
+        tipoUsuarioRegistro.invalidar();
         return db;
     }
 
+    @Transactional(readOnly = true)
     public List<TipoUsuario> listar() {
         return tipoUsuarioRepositorio.findAll();
     }
 
+    @Transactional(readOnly = true)
     public TipoUsuario obtenerPorId(Long id) {
         return tipoUsuarioRepositorio.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "TipoUsuario no encontrado id=" + id));
@@ -68,26 +82,63 @@ public class TipoUsuarioServicio {
 
     public void eliminar(Long id) {
         tipoUsuarioRepositorio.deleteById(id);
+        tipoUsuarioRegistro.invalidar();
+        revocacion.revocarTodosAlConfirmar();
     }
 
-    public TipoUsuario patch(Long id, Map<String, Object> cambios) {
+    public TipoUsuario patch(Long id, InputStream cuerpo, boolean mergePatch, String ifMatch) {
         TipoUsuario db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
+        String nombreAnterior = db.getNombre();
+        camposPatch.aplicar(db, cuerpo, mergePatch);
+        revocarSiRenombra(nombreAnterior, db.getNombre());
+        tipoUsuarioRegistro.invalidar();
+        return db;
+    }
 
-        if (cambios.containsKey("nombre") && cambios.get("nombre") != null) {
-            String rol = normalizaRol(String.valueOf(cambios.get("nombre")));
-            if (!ROLES_PERMITIDOS.contains(rol)) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN,
-                        "Tipo de usuario no permitido. Permitidos: " + ROLES_PERMITIDOS);
-            }
-            if (!db.getNombre().equalsIgnoreCase(rol) && tipoUsuarioRepositorio.existsByNombre(rol)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "TipoUsuario ya existe: " + rol);
-            }
-            db.setNombre(rol);
-        }
+    /* ===================== Versiones (ETag / If-Match) ===================== */
+
+    /** Validadores de GET /{id} con una consulta por PK, sin cargar la entidad. */
+    @Transactional(readOnly = true)
+    public VersionRecurso version(Long id) {
+        return tipoUsuarioRepositorio.buscarVersion(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "TipoUsuario no encontrado id=" + id));
+    }
+
+    @Transactional(readOnly = true)
+    public VersionColeccion versionColeccion() {
+        return tipoUsuarioRepositorio.versionColeccion();
+    }
+
+    public static VersionRecurso versionDe(TipoUsuario t) {
+        return new VersionRecurso(t.getVersion());
+    }
 
-        if (cambios.containsKey("descripcion")) {
-            db.setDescripcion(cambios.get("descripcion") == null ? null : String.valueOf(cambios.get("descripcion")));
+    private AplicadorPatch<TipoUsuario> construirCamposPatch() {
+        return AplicadorPatch.<TipoUsuario>para()
+                .texto("nombre", Nulo.OBLIGATORIO, this::asignarNombre)
+                // descripcion: null la borra también con application/json (comportamiento previo)
+                .texto("descripcion", Nulo.BORRA, TipoUsuario::setDescripcion)
+                .construir();
+    }
+
+    /** Los JWT llevan el nombre del rol firmado: renombrarlo invalida los de todos los usuarios. */
+    private void revocarSiRenombra(String anterior, String nuevo) {
+        if (!anterior.equals(nuevo)) revocacion.revocarTodosAlConfirmar();
+    }
+
+    private void asignarNombre(TipoUsuario db, String valor) {
+        String rol = Normalizacion.rol(valor);
+        if ("ADMIN".equals(rol)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No se permite actualizar el nombre a ADMIN");
         }
-        return db;
+        if (!ROLES_PERMITIDOS.contains(rol)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                    "Tipo de usuario no permitido. Permitidos: " + ROLES_PERMITIDOS);
+        }
+        if (!db.getNombre().equalsIgnoreCase(rol) && tipoUsuarioRepositorio.existsByNombre(rol)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "TipoUsuario ya existe: " + rol);
+        }
+        db.setNombre(rol);
     }
 }
@@ -1,18 +1,24 @@
 package gestionpa.com.interciclo.Servicios;
 
+import gestionpa.com.interciclo.DTO.PaginaCursor;
+import gestionpa.com.interciclo.DTO.PersonaSugerencia;
+import gestionpa.com.interciclo.DTO.VersionColeccion;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
 import gestionpa.com.interciclo.Entidades.TipoUsuario;
 import gestionpa.com.interciclo.Entidades.Tutor;
 import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
 import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
-import jakarta.transaction.Transactional;
+import gestionpa.com.interciclo.Seguridad.RevocacionTokens;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch.Nulo;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 
 @Service
 @Transactional
@@ -21,13 +27,21 @@ public class TutorServicio {
     private final TutorRepositorio tutorRepositorio;
     private final TipoUsuarioRepositorio tipoUsuarioRepositorio;
     private final PasswordEncoder passwordEncoder;
+    private final RevocacionTokens revocacion;
+    private final TipoUsuarioRegistro tipoUsuarioRegistro;
+    private final AplicadorPatch<Tutor> camposPatch;
 
     public TutorServicio(TutorRepositorio tutorRepositorio,
                          TipoUsuarioRepositorio tipoUsuarioRepositorio,
-                         PasswordEncoder passwordEncoder) {
+                         PasswordEncoder passwordEncoder,
+                         RevocacionTokens revocacion,
+                         TipoUsuarioRegistro tipoUsuarioRegistro) {
         this.tutorRepositorio = tutorRepositorio;
         this.tipoUsuarioRepositorio = tipoUsuarioRepositorio;
         this.passwordEncoder = passwordEncoder;
+        this.revocacion = revocacion;
+        this.tipoUsuarioRegistro = tipoUsuarioRegistro;
+        this.camposPatch = construirCamposPatch();
     }
 
     private static final String ROL_ADMIN = "ADMIN";
@@ -41,13 +55,13 @@ public class TutorServicio {
         tutor.setTipoUsuario(resolverTipoUsuarioODefaultTutor(tutor.getTipoUsuario()));
 
         // 2) Normaliza
-        normalizaCampos(tutor);
+        Normalizacion.tutor(tutor);
 
         // 3) Unicidades
-        if (tutorRepositorio.existsByEmail(tutor.getEmail())) {
+        if (tutorRepositorio.existsByEmailIgnoreCase(tutor.getEmail())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + tutor.getEmail());
         }
-        if (tutorRepositorio.existsByUsername(tutor.getUsername())) {
+        if (tutorRepositorio.existsByUsernameIgnoreCase(tutor.getUsername())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + tutor.getUsername());
         }
 
@@ -65,28 +79,30 @@ public class TutorServicio {
         return tutorRepositorio.save(tutor);
     }
 
-    public Tutor actualizar(Long id, Tutor tutor) {
+    public Tutor actualizar(Long id, Tutor tutor, String ifMatch) {
         Tutor db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
+        Acceso antes = Acceso.de(db);
 
         // Si llega tipoUsuario, resolver (id o nombre)
         if (tutor.getTipoUsuario() != null) {
             db.setTipoUsuario(resolverTipoUsuarioODefaultTutor(tutor.getTipoUsuario()));
         }
 
-        String nuevoEmail = trimOrNull(tutor.getEmail());
-        String nuevoUser  = trimOrNull(tutor.getUsername());
+        String nuevoEmail = Normalizacion.trimOrNull(tutor.getEmail());
+        String nuevoUser  = Normalizacion.trimOrNull(tutor.getUsername());
 
-        if (nuevoEmail != null && !equalsIgnoreCase(nuevoEmail, db.getEmail())
-                && tutorRepositorio.existsByEmail(nuevoEmail)) {
+        if (nuevoEmail != null && !Normalizacion.mismaClave(nuevoEmail, db.getEmail())
+                && tutorRepositorio.existsByEmailIgnoreCase(nuevoEmail)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + nuevoEmail);
         }
-        if (nuevoUser != null && !equalsIgnoreCase(nuevoUser, db.getUsername())
-                && tutorRepositorio.existsByUsername(nuevoUser)) {
+        if (nuevoUser != null && !Normalizacion.mismaClave(nuevoUser, db.getUsername())
+                && tutorRepositorio.existsByUsernameIgnoreCase(nuevoUser)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + nuevoUser);
         }
 
-        db.setNombre(trimOrNull(tutor.getNombre()));
-        db.setApellido(trimOrNull(tutor.getApellido()));
+        db.setNombre(Normalizacion.trimOrNull(tutor.getNombre()));
+        db.setApellido(Normalizacion.trimOrNull(tutor.getApellido()));
         if (nuevoEmail != null) db.setEmail(nuevoEmail);
         if (nuevoUser  != null) db.setUsername(nuevoUser);
 
@@ -95,90 +111,131 @@ public class TutorServicio {
         }
 
         if (tutor.getEstaActivo() != null) db.setEstaActivo(tutor.getEstaActivo());
-        db.setTituloAcademico(trimOrNull(tutor.getTituloAcademico()));
-        db.setDepartamento(trimOrNull(tutor.getDepartamento()));
+        db.setTituloAcademico(Normalizacion.trimOrNull(tutor.getTituloAcademico()));
+        db.setDepartamento(Normalizacion.trimOrNull(tutor.getDepartamento()));
 
         validarRolYReglas(db, null);
 
+        revocarSiCambia(antes, db);
         return db;
     }
 
-    @Transactional(Transactional.TxType.SUPPORTS)
+    @Transactional(readOnly = true)
     public List<Tutor> listar() {
         return tutorRepositorio.findAll();
     }
 
-    @Transactional(Transactional.TxType.SUPPORTS)
+    @Transactional(readOnly = true)
+    public PaginaCursor<Tutor> listarPagina(Long despuesDe, Integer tamanio) {
+        int n = PaginaCursor.normalizaTamanio(tamanio);
+        List<Tutor> filas = tutorRepositorio.findByIdGreaterThanOrderByIdAsc(
+                despuesDe == null ? 0L : despuesDe, Limit.of(n + 1));
+        return PaginaCursor.de(filas, n, Tutor::getId);
+    }
+
+    @Transactional(readOnly = true)
     public Tutor obtenerPorId(Long id) {
         return tutorRepositorio.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tutor no encontrado id=" + id));
     }
 
-    @Transactional(Transactional.TxType.SUPPORTS)
-    public Tutor obtenerPorNombre(String nombre) {
-        return tutorRepositorio.findByNombre(nombre).orElse(null);
+    /** Autocompletado por nombre y apellido, tolerante a erratas: {@code q} de al menos 2 letras. */
+    @Transactional(readOnly = true)
+    public List<PersonaSugerencia> sugerir(String q, Integer limite) {
+        String texto = Normalizacion.trimOrNull(q);
+        if (texto == null || texto.length() < 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro q necesita al menos 2 caracteres");
+        }
+        int n = (limite == null || limite < 1) ? 10 : Math.min(limite, 50);
+        return tutorRepositorio.sugerir(texto, n);
     }
 
     public void eliminar(Long id) {
+        tutorRepositorio.findById(id)
+                .ifPresent(t -> revocacion.revocarAlConfirmar(t.getUsername()));
         tutorRepositorio.deleteById(id);
     }
 
     /* ========= NECESARIO PARA LOGIN ========= */
-    @Transactional(Transactional.TxType.SUPPORTS)
+    @Transactional(readOnly = true)
     public Tutor obtenerPorUsername(String username) {
         return tutorRepositorio.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Tutor no encontrado username=" + username));
     }
 
+    /* ===================== Versiones (ETag / If-Match) ===================== */
+
+    /** Validadores de GET /{id} con una consulta por PK, sin cargar la entidad. */
+    @Transactional(readOnly = true)
+    public VersionRecurso version(Long id) {
+        return tutorRepositorio.buscarVersion(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Tutor no encontrado id=" + id));
+    }
+
+    @Transactional(readOnly = true)
+    public VersionColeccion versionColeccion() {
+        return tutorRepositorio.versionColeccion();
+    }
+
+    public static VersionRecurso versionDe(Tutor t) {
+        long rol = t.getTipoUsuario() != null ? t.getTipoUsuario().getVersion() : 0;
+        return new VersionRecurso(t.getVersion(), rol, t.getActualizadoEn());
+    }
+
     /* ===================== PATCH ===================== */
 
-    public Tutor patch(Long id, Map<String, Object> cambios) {
+    /** PATCH parcial; con merge-patch (RFC 7386) un null explícito borra los campos opcionales. */
+    public Tutor patch(Long id, InputStream cuerpo, boolean mergePatch, String ifMatch) {
         Tutor db = obtenerPorId(id);
+        versionDe(db).exigir(ifMatch);
         boolean wasAdmin = isAdmin(db);
+        Acceso antes = Acceso.de(db);
 
-        putIfString(cambios, "nombre", v -> db.setNombre(trimOrNull(v)));
-        putIfString(cambios, "apellido", v -> db.setApellido(trimOrNull(v)));
+        camposPatch.aplicar(db, cuerpo, mergePatch);
 
-        if (cambios.containsKey("email") && cambios.get("email") != null) {
-            String email = trimOrNull(String.valueOf(cambios.get("email")));
-            if (!equalsIgnoreCase(email, db.getEmail()) && tutorRepositorio.existsByEmail(email)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + email);
-            }
-            db.setEmail(email);
-        }
+        validarRolYReglas(db, wasAdmin ? ROL_ADMIN : null);
 
-        if (cambios.containsKey("username") && cambios.get("username") != null) {
-            String user = trimOrNull(String.valueOf(cambios.get("username")));
-            if (!equalsIgnoreCase(user, db.getUsername()) && tutorRepositorio.existsByUsername(user)) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + user);
-            }
-            db.setUsername(user);
-        }
+        revocarSiCambia(antes, db);
+        return db;
+    }
 
-        if (cambios.containsKey("password") && cambios.get("password") != null) {
-            String raw = String.valueOf(cambios.get("password"));
-            if (!raw.isBlank()) db.setPassword(passwordEncoder.encode(raw));
-        }
+    private AplicadorPatch<Tutor> construirCamposPatch() {
+        return AplicadorPatch.<Tutor>para()
+                .texto("nombre", Nulo.OBLIGATORIO, (t, v) -> t.setNombre(Normalizacion.trimOrNull(v)))
+                .texto("apellido", Nulo.OBLIGATORIO, (t, v) -> t.setApellido(Normalizacion.trimOrNull(v)))
+                .texto("email", Nulo.OBLIGATORIO, this::asignarEmail)
+                .texto("username", Nulo.OBLIGATORIO, this::asignarUsername)
+                .texto("password", Nulo.OBLIGATORIO, (t, raw) -> {
+                    if (!raw.isBlank()) t.setPassword(passwordEncoder.encode(raw));
+                })
+                .booleano("estaActivo", Nulo.OBLIGATORIO, Tutor::setEstaActivo)
+                .texto("tituloAcademico", Nulo.ANULABLE, (t, v) -> t.setTituloAcademico(Normalizacion.trimOrNull(v)))
+                .texto("departamento", Nulo.ANULABLE, (t, v) -> t.setDepartamento(Normalizacion.trimOrNull(v)))
+                .entero("tipoUsuarioId", Nulo.OBLIGATORIO, (t, tipoId) -> t.setTipoUsuario(tipoUsuarioRegistro.porId(tipoId)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + tipoId))))
+                .texto("tipoUsuarioNombre", Nulo.OBLIGATORIO, "tipoUsuarioId", (t, v) -> {
+                    String nom = Normalizacion.rol(v);
+                    t.setTipoUsuario(tipoUsuarioRegistro.porNombre(nom)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom)));
+                })
+                .construir();
+    }
 
-        putIfBoolean(cambios, "estaActivo", db::setEstaActivo);
-        putIfString(cambios, "tituloAcademico", v -> db.setTituloAcademico(trimOrNull(v)));
-        putIfString(cambios, "departamento", v -> db.setDepartamento(trimOrNull(v)));
-
-        if (cambios.containsKey("tipoUsuarioId") && cambios.get("tipoUsuarioId") != null) {
-            Long tipoId = toLong(cambios.get("tipoUsuarioId"));
-            TipoUsuario tu = tipoUsuarioRepositorio.findById(tipoId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + tipoId));
-            db.setTipoUsuario(tu);
-        } else if (cambios.containsKey("tipoUsuarioNombre") && cambios.get("tipoUsuarioNombre") != null) {
-            String nom = normalize(String.valueOf(cambios.get("tipoUsuarioNombre")));
-            TipoUsuario tu = tipoUsuarioRepositorio.findByNombre(nom)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom));
-            db.setTipoUsuario(tu);
+    private void asignarEmail(Tutor db, String valor) {
+        String email = Normalizacion.trimOrNull(valor);
+        if (!Normalizacion.mismaClave(email, db.getEmail()) && tutorRepositorio.existsByEmailIgnoreCase(email)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email ya existe: " + email);
         }
+        db.setEmail(email);
+    }
 
-        validarRolYReglas(db, wasAdmin ? ROL_ADMIN : null);
-        return db;
+    private void asignarUsername(Tutor db, String valor) {
+        String user = Normalizacion.trimOrNull(valor);
+        if (!Normalizacion.mismaClave(user, db.getUsername()) && tutorRepositorio.existsByUsernameIgnoreCase(user)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username ya existe: " + user);
+        }
+        db.setUsername(user);
     }
 
     /* ===================== Helpers de rol ===================== */
@@ -188,13 +245,13 @@ public class TutorServicio {
             return asegurarRolTutor();
         }
         if (entrada.getId() != null) {
-            return tipoUsuarioRepositorio.findById(entrada.getId())
+            return tipoUsuarioRegistro.porId(entrada.getId())
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado id=" + entrada.getId()));
         }
         if (entrada.getNombre() != null) {
-            String nom = normalize(entrada.getNombre());
-            return tipoUsuarioRepositorio.findByNombre(nom)
+            String nom = Normalizacion.rol(entrada.getNombre());
+            return tipoUsuarioRegistro.porNombre(nom)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.BAD_REQUEST, "TipoUsuario no encontrado nombre=" + nom));
         }
@@ -202,18 +259,19 @@ public class TutorServicio {
     }
 
     private TipoUsuario asegurarRolTutor() {
-        return tipoUsuarioRepositorio.findByNombre(ROL_TUTOR)
+        return tipoUsuarioRegistro.porNombre(ROL_TUTOR)
                 .orElseGet(() -> {
                     TipoUsuario t = new TipoUsuario();
                     t.setNombre(ROL_TUTOR);
                     t.setDescripcion("Usuario tutor del sistema");
+                    tipoUsuarioRegistro.invalidar();
                     return tipoUsuarioRepositorio.save(t);
                 });
     }
 
     private void validarRolYReglas(Tutor estadoActual, String rolAnterior) {
         String rolActual = estadoActual.getTipoUsuario() != null
-                ? normalize(estadoActual.getTipoUsuario().getNombre()) : null;
+                ? Normalizacion.rol(estadoActual.getTipoUsuario().getNombre()) : null;
 
         if (rolActual == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tipoUsuario es obligatorio");
@@ -223,7 +281,7 @@ public class TutorServicio {
         boolean eraAdminAntes = ROL_ADMIN.equalsIgnoreCase(rolAnterior);
 
         if (esAdminAhora && !eraAdminAntes) {
-            long admins = tutorRepositorio.countByTipoUsuarioNombreIgnoreCase(ROL_ADMIN);
+            long admins = tutorRepositorio.countByTipoUsuarioNombre(ROL_ADMIN);
             if (admins > 0) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Ya existe un usuario ADMIN");
             }
@@ -242,43 +300,24 @@ public class TutorServicio {
         }
     }
 
-    private boolean isAdmin(Tutor t) {
-        String r = t.getTipoUsuario() != null ? t.getTipoUsuario().getNombre() : null;
-        return r != null && ROL_ADMIN.equalsIgnoreCase(r.trim());
-    }
-
-    /* ===================== Otros helpers ===================== */
+    /* ===================== Revocación de JWT ===================== */
 
-    private void putIfString(Map<String, Object> map, String key, java.util.function.Consumer<String> setter) {
-        if (map.containsKey(key) && map.get(key) != null) setter.accept(String.valueOf(map.get(key)));
-    }
-    private void putIfBoolean(Map<String, Object> map, String key, java.util.function.Consumer<Boolean> setter) {
-        if (map.containsKey(key) && map.get(key) != null) {
-            Object v = map.get(key);
-            if (v instanceof Boolean b) setter.accept(b);
-            else setter.accept(Boolean.valueOf(String.valueOf(v)));
+    /** Lo que un JWT da por hecho del tutor: si cambia, sus tokens emitidos dejan de valer. */
+    private record Acceso(Boolean activo, Long rolId, String username, String password) {
+        static Acceso de(Tutor t) {
+            Long rol = t.getTipoUsuario() != null ? t.getTipoUsuario().getId() : null;
+            return new Acceso(t.getEstaActivo(), rol, t.getUsername(), t.getPassword());
         }
     }
-    private Long toLong(Object v) {
-        if (v instanceof Number) return ((Number) v).longValue();
-        return Long.valueOf(String.valueOf(v));
-    }
-    private String trimOrNull(String s) { return (s == null) ? null : s.trim(); }
-    private boolean equalsIgnoreCase(String a, String b) {
-        return Objects.equals(a == null ? null : a.toLowerCase(), b == null ? null : b.toLowerCase());
-    }
-    private String normalize(String x) {
-        return x == null ? null : x.trim().toUpperCase().replace(' ', '_');
-    }
-    private void normalizaCampos(Tutor t) {
-        t.setNombre(trimOrNull(t.getNombre()));
-        t.setApellido(trimOrNull(t.getApellido()));
-        t.setEmail(trimOrNull(t.getEmail()));
-        t.setUsername(trimOrNull(t.getUsername()));
-        t.setTituloAcademico(trimOrNull(t.getTituloAcademico()));
-        t.setDepartamento(trimOrNull(t.getDepartamento()));
-        if (t.getTipoUsuario() != null && t.getTipoUsuario().getNombre() != null) {
-            t.getTipoUsuario().setNombre(normalize(t.getTipoUsuario().getNombre()));
+
+    private void revocarSiCambia(Acceso antes, Tutor db) {
+        if (!antes.equals(Acceso.de(db))) {
+            revocacion.revocarAlConfirmar(antes.username());
         }
     }
+
+    private boolean isAdmin(Tutor t) {
+        String r = t.getTipoUsuario() != null ? t.getTipoUsuario().getNombre() : null;
+        return r != null && ROL_ADMIN.equalsIgnoreCase(r.trim());
+    }
 }
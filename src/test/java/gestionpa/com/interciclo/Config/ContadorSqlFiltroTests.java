@@ -0,0 +1,55 @@
+package gestionpa.com.interciclo.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** X-SQL-Count cuenta también lo que se ejecuta mientras se escribe el cuerpo. */
+class ContadorSqlFiltroTests {
+
+	private final ContadorSql inspector = new ContadorSql();
+
+	@Test
+	void laCabeceraIncluyeLasSentenciasDeLaSerializacion() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new ContadorSqlFiltro(new SimpleMeterRegistry(), true).doFilter(new MockHttpServletRequest("GET", "/api/proyectos"), response,
+				(req, res) -> {
+					inspector.inspect("select p from proyecto p");
+					res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+					res.getWriter().write("[{\"tutor\":");
+					inspector.inspect("select u from usuario u"); // carga perezosa al serializar
+					res.getWriter().write("{}}]");
+				});
+
+		assertEquals("2", response.getHeader(ContadorSqlFiltro.CABECERA));
+		assertEquals("[{\"tutor\":{}}]", response.getContentAsString());
+	}
+
+	@Test
+	void lasRespuestasEnFlujoNoSeRetienen() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new ContadorSqlFiltro(new SimpleMeterRegistry(), true).doFilter(new MockHttpServletRequest("GET", "/api/proyectos/stream"), response,
+				(req, res) -> {
+					res.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+					res.getOutputStream().write("{\"id\":1}\n".getBytes());
+					res.flushBuffer();
+					assertEquals("{\"id\":1}\n", response.getContentAsString(), "la primera línea sale antes de terminar");
+				});
+
+		assertNull(response.getHeader(ContadorSqlFiltro.CABECERA));
+	}
+
+	@Test
+	void sinElModoDesarrolloNoHayCabecera() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new ContadorSqlFiltro(new SimpleMeterRegistry(), false).doFilter(new MockHttpServletRequest("GET", "/api/proyectos"), response,
+				(req, res) -> res.getWriter().write("[]"));
+
+		assertNull(response.getHeader(ContadorSqlFiltro.CABECERA));
+		assertEquals("[]", response.getContentAsString());
+	}
+}
@@ -0,0 +1,63 @@
+package gestionpa.com.interciclo.Config;
+
+import gestionpa.com.interciclo.Config.EnrutadorDataSource.Destino;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Destino de cada conexión según la transacción en curso y lo que ya hizo la petición. */
+class EnrutadorDataSourceTests {
+
+	private final EnrutadorDataSource enrutador = new EnrutadorDataSource();
+
+	@AfterEach
+	void limpiar() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void lecturaVaALaReplicaHastaQueLaPeticionEscribe() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+		transaccion(true);
+		assertEquals(Destino.REPLICA, enrutador.determineCurrentLookupKey());
+
+		transaccion(false);
+		assertEquals(Destino.PRIMARIA, enrutador.determineCurrentLookupKey());
+
+		// read-your-writes: después de escribir, la misma petición lee de la primaria
+		transaccion(true);
+		assertEquals(Destino.PRIMARIA, enrutador.determineCurrentLookupKey());
+
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		assertEquals(Destino.REPLICA, enrutador.determineCurrentLookupKey());
+	}
+
+	@Test
+	void sinPeticionNiTransaccionVaALaPrimaria() {
+		assertEquals(Destino.PRIMARIA, enrutador.determineCurrentLookupKey());
+		transaccion(true);
+		assertEquals(Destino.REPLICA, enrutador.determineCurrentLookupKey());
+	}
+
+	@Test
+	void conOpenInViewNoSeCreaElEnrutador() {
+		// el EntityManager de la petición fijaría la conexión de la réplica también para escribir
+		assertThrows(IllegalStateException.class, () -> new ReplicaConfig()
+				.dataSource(new DriverManagerDataSource(), new DriverManagerDataSource(), true));
+	}
+
+	private static void transaccion(boolean soloLectura) {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(soloLectura);
+	}
+}
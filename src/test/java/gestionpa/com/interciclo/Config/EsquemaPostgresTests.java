@@ -0,0 +1,118 @@
+package gestionpa.com.interciclo.Config;
+
+import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
+import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las búsquedas sin mayúsculas y el autocompletado de los repositorios usan los índices de EsquemaPostgres.
+ * Necesita PostgreSQL: mvn test -Dtest.postgres.url=jdbc:postgresql://localhost:5432/interciclo
+ * (usuario/clave con -Dtest.postgres.usuario / -Dtest.postgres.clave). Sin la propiedad se omite.
+ *
+ * Se hace EXPLAIN del SQL que genera Hibernate (capturado con ContadorSql) con enable_seqscan=off:
+ * así el plan demuestra que el índice sirve para el predicado aunque la tabla sea pequeña.
+ */
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = ".+")
+@SpringBootTest(properties = {
+		"spring.datasource.url=${test.postgres.url}",
+		"spring.datasource.username=${test.postgres.usuario:postgres}",
+		"spring.datasource.password=${test.postgres.clave:postgres}",
+		"spring.jpa.hibernate.ddl-auto=update",
+		"app.outbox.intervalo-ms=3600000"})
+class EsquemaPostgresTests {
+
+	@Autowired
+	TutorRepositorio tutorRepositorio;
+
+	@Autowired
+	EstudianteRepositorio estudianteRepositorio;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	EsquemaPostgres esquemaPostgres;
+
+	@Test
+	void emailYUsernameSinMayusculasUsanSusIndices() {
+		tutorRepositorio.existsByEmailIgnoreCase("Alguien@Tutor.com");
+		assertUsaIndice(ContadorSql.ultima(), "uk_tutor_email_ci", "Alguien@Tutor.com", 1);
+
+		tutorRepositorio.existsByUsernameIgnoreCase("Alguien");
+		assertUsaIndice(ContadorSql.ultima(), "uk_tutor_username_ci", "Alguien", 1);
+
+		estudianteRepositorio.existsByEmailIgnoreCase("Alguien@Uni.edu");
+		assertUsaIndice(ContadorSql.ultima(), "uk_estudiante_email_ci", "Alguien@Uni.edu", 1);
+
+		estudianteRepositorio.existsByUsernameIgnoreCase("Alguien");
+		assertUsaIndice(ContadorSql.ultima(), "uk_estudiante_username_ci", "Alguien", 1);
+
+		estudianteRepositorio.findEmailsExistentes(List.of("ALGUIEN@UNI.EDU"));
+		assertUsaIndice(ContadorSql.ultima(), "uk_estudiante_email_ci", "ALGUIEN@UNI.EDU");
+
+		// prefijo sin coincidencias: si hubiera filas, la última SQL sería la carga EAGER de su tipoUsuario
+		tutorRepositorio.findByApellidoStartingWithIgnoreCase("Zzq");
+		assertUsaIndice(ContadorSql.ultima(), "idx_tutor_apellido_ci", "Zzq%");
+	}
+
+	@Test
+	void elAutocompletadoUsaLosIndicesDeTrigramas() {
+		tutorRepositorio.sugerir("garc", 10);
+		assertUsaIndice(ContadorSql.ultima(), "idx_tutor_nombre_gist", "garc", "garc", "garc", 10);
+
+		estudianteRepositorio.sugerir("rodrigez", 10);
+		assertUsaIndice(ContadorSql.ultima(), "idx_estudiante_nombre_gist", "rodrigez", "rodrigez", "rodrigez", 10);
+	}
+
+	@Test
+	void laUnicidadNoDistingueMayusculas() {
+		List<String> email = jdbcTemplate.queryForList("select email from estudiante limit 1", String.class);
+		if (email.isEmpty()) return;
+		String otraForma = email.get(0).toUpperCase().equals(email.get(0))
+				? email.get(0).toLowerCase() : email.get(0).toUpperCase();
+		assertTrue(estudianteRepositorio.existsByEmailIgnoreCase(otraForma));
+	}
+
+	@Test
+	void detectaLosValoresQueSoloDifierenEnMayusculas() {
+		jdbcTemplate.execute("CREATE TABLE esquema_duplicados_prueba (id bigint, email text)");
+		try {
+			jdbcTemplate.update("INSERT INTO esquema_duplicados_prueba VALUES "
+					+ "(3, 'Ana@X.com'), (1, 'ana@x.COM'), (2, 'otro@x.com'), (4, 'ANA@X.COM')");
+			assertEquals(List.of("ANA@X.COM (ids 1, 3, 4)"),
+					esquemaPostgres.duplicados("esquema_duplicados_prueba", "email"));
+		} finally {
+			jdbcTemplate.execute("DROP TABLE esquema_duplicados_prueba");
+		}
+	}
+
+	/** Sustituye los parámetros por literales, en orden, y busca el índice en el plan. */
+	private void assertUsaIndice(String sql, String indice, Object... valores) {
+		String consulta = sql;
+		for (Object v : valores) {
+			String literal = v instanceof String s ? "'" + s.replace("'", "''") + "'" : String.valueOf(v);
+			consulta = consulta.replaceFirst("\\?", Matcher.quoteReplacement(literal));
+		}
+		assertFalse(consulta.contains("?"), "parámetros sin valor: " + consulta);
+		String sentencia = consulta;
+		String plan = new TransactionTemplate(transactionManager).execute(tx -> {
+			jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+			return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sentencia, String.class));
+		});
+		assertTrue(plan.contains(indice), sentencia + "\n" + plan);
+	}
+}
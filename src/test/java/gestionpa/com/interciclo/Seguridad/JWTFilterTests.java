@@ -0,0 +1,70 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import gestionpa.com.interciclo.Servicios.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Modo sin estado: authorities desde los claims, sin cargar el usuario, y revocación por generación. */
+class JWTFilterTests {
+
+	private final JwtService jwtService = new JwtService();
+	private final TokenCache cache = new TokenCache(100);
+	private final RevocacionTokens revocacion = new RevocacionTokens(cache);
+	private final AtomicInteger cargas = new AtomicInteger();
+	private final UserDetailsService uds = username -> {
+		cargas.incrementAndGet();
+		throw new AssertionError("no debería consultar el usuario");
+	};
+	private final JWTFilter filtro = new JWTFilter(jwtService, uds, cache, revocacion, new SimpleMeterRegistry(), true);
+
+	@AfterEach
+	void limpiar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void lasAuthoritiesSalenDelTokenSinCargarElUsuario() throws Exception {
+		String token = jwtService.generateToken("tutor1", "tutor", revocacion.generacion("tutor1"));
+
+		Authentication auth = filtrar(token);
+		assertNotNull(auth);
+		assertEquals("tutor1", auth.getName());
+		assertEquals("ROLE_TUTOR", auth.getAuthorities().iterator().next().getAuthority());
+		assertEquals(0, cargas.get());
+	}
+
+	@Test
+	void unTokenRevocadoDejaDeAutenticarYUnoNuevoSi() throws Exception {
+		String viejo = jwtService.generateToken("tutor2", "TUTOR", revocacion.generacion("tutor2"));
+		String otro = jwtService.generateToken("tutor3", "TUTOR", revocacion.generacion("tutor3"));
+		assertNotNull(filtrar(viejo)); // queda en TokenCache
+
+		revocacion.revocar("tutor2");
+
+		assertNull(filtrar(viejo), "la revocación también lo saca de la caché");
+		assertNotNull(filtrar(otro), "sólo se revocan los tokens de ese usuario");
+		String nuevo = jwtService.generateToken("tutor2", "ADMIN", revocacion.generacion("tutor2"));
+		assertEquals("ROLE_ADMIN", filtrar(nuevo).getAuthorities().stream()
+				.map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+		assertEquals(0, cargas.get());
+	}
+
+	private Authentication filtrar(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/proyectos");
+		req.addHeader("Authorization", "Bearer " + token);
+		filtro.doFilter(req, new MockHttpServletResponse(), (rq, rs) -> { });
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+}
@@ -0,0 +1,106 @@
+package gestionpa.com.interciclo.Seguridad;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Buckets sin bloqueo: con muchos hilos a la vez nunca se conceden más intentos que la capacidad. */
+class LimitadorLoginTests {
+
+	private static final int HILOS = 16;
+	private static final int INTENTOS_POR_HILO = 500;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	void bajoConcurrenciaSeConcedeExactamenteLaCapacidad() throws Exception {
+		// recarga de 1/min: durante el test no entra ningún intento nuevo
+		LimitadorLogin limitador = new LimitadorLogin(50, 1, 0, 1, 1000, registry);
+
+		List<Integer> concedidos = enParalelo(hilo -> {
+			int ok = 0;
+			for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+				try {
+					limitador.intento("Victima", "10.0.0." + hilo);
+					ok++;
+				} catch (LimitadorLogin.Limitado e) {
+					assertTrue(e.getSegundos() > 0);
+				}
+			}
+			return ok;
+		});
+
+		assertEquals(50, concedidos.stream().mapToInt(Integer::intValue).sum());
+		assertEquals(HILOS * INTENTOS_POR_HILO - 50,
+				registry.get("seguridad.login.rechazos").tag("por", "usuario").counter().count());
+	}
+
+	@Test
+	void elLimitePorIpCubreUsernamesDistintosYLaMemoriaQuedaAcotada() throws Exception {
+		LimitadorLogin limitador = new LimitadorLogin(3, 1, 200, 1, 640, registry);
+
+		List<Integer> concedidos = enParalelo(hilo -> {
+			int ok = 0;
+			for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+				try {
+					// cada hilo prueba usernames distintos desde su propia IP
+					limitador.intento("user-" + hilo + "-" + i, "192.168.1." + hilo);
+					ok++;
+				} catch (LimitadorLogin.Limitado e) {
+					assertEquals("60", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+				}
+			}
+			return ok;
+		});
+
+		// 3200 usernames distintos no expulsan los buckets de las 16 IPs
+		concedidos.forEach(ok -> assertEquals(200, ok));
+		assertTrue(limitador.tamanio() <= 640 + HILOS, "LRU acotado: " + limitador.tamanio());
+	}
+
+	@Test
+	void unLoginCorrectoDevuelveLosIntentosAlUsuario() {
+		LimitadorLogin limitador = new LimitadorLogin(2, 1, 0, 1, 1000, registry);
+		limitador.intento("ana", "1.1.1.1");
+		limitador.intento("ANA ", "1.1.1.1");
+		assertThrows(LimitadorLogin.Limitado.class, () -> limitador.intento("ana", "1.1.1.1"));
+
+		limitador.exito("ana");
+		assertDoesNotThrow(() -> limitador.intento("ana", "1.1.1.1"));
+	}
+
+	private interface Tarea {
+		int ejecutar(int hilo);
+	}
+
+	private static List<Integer> enParalelo(Tarea tarea) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		try {
+			CountDownLatch salida = new CountDownLatch(1);
+			List<Future<Integer>> futuros = new ArrayList<>();
+			for (int h = 0; h < HILOS; h++) {
+				int hilo = h;
+				futuros.add(pool.submit(() -> {
+					salida.await();
+					return tarea.ejecutar(hilo);
+				}));
+			}
+			salida.countDown();
+			List<Integer> res = new ArrayList<>();
+			for (Future<Integer> f : futuros) res.add(f.get(30, TimeUnit.SECONDS));
+			return res;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Config.GlobalExceptionHandler;
+import gestionpa.com.interciclo.Controladores.ProyectoControlador;
+import gestionpa.com.interciclo.Servicios.AplicadorPatch.Nulo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Semántica de null por modo (JSON plano / merge-patch), campos prioritarios y errores, sin contexto Spring. */
+class AplicadorPatchTests {
+
+	/* Los mismos tipos de campo que usan los servicios; cada setter deja constancia de que se llamó. */
+	static class Ficha {
+		String titulo = "Título";
+		String objetivos = "Objetivos";
+		String descripcion = "Descripción";
+		BigDecimal nota = BigDecimal.TEN;
+		Long tipoId;
+		String tipoNombre;
+		final List<String> llamadas = new ArrayList<>();
+	}
+
+	private final AplicadorPatch<Ficha> aplicador = AplicadorPatch.<Ficha>para()
+			.texto("titulo", Nulo.OBLIGATORIO, (f, v) -> { f.titulo = v; f.llamadas.add("titulo"); })
+			.texto("objetivos", Nulo.ANULABLE, (f, v) -> { f.objetivos = v; f.llamadas.add("objetivos"); })
+			.texto("descripcion", Nulo.BORRA, (f, v) -> { f.descripcion = v; f.llamadas.add("descripcion"); })
+			.decimal("nota", Nulo.ANULABLE, (f, v) -> { f.nota = v; f.llamadas.add("nota"); })
+			.entero("tipoUsuarioId", Nulo.OBLIGATORIO, (f, v) -> { f.tipoId = v; f.llamadas.add("tipoUsuarioId"); })
+			.texto("tipoUsuarioNombre", Nulo.OBLIGATORIO, "tipoUsuarioId",
+					(f, v) -> { f.tipoNombre = v; f.llamadas.add("tipoUsuarioNombre"); })
+			.construir();
+
+	@Test
+	void elJsonPlanoIgnoraLosNullYMergePatchBorraLosAnulables() {
+		String cuerpo = "{\"objetivos\":null,\"nota\":null,\"titulo\":null}";
+
+		Ficha plano = aplicar(cuerpo, false);
+		assertEquals("Objetivos", plano.objetivos);
+		assertEquals(BigDecimal.TEN, plano.nota);
+		assertEquals("Título", plano.titulo, "OBLIGATORIO: un null en JSON plano no cambia nada");
+		assertTrue(plano.llamadas.isEmpty());
+
+		Ficha merge = aplicar("{\"objetivos\":null,\"nota\":null}", true);
+		assertNull(merge.objetivos);
+		assertNull(merge.nota);
+	}
+
+	@Test
+	void borraQuitaElValorEnAmbosModos() {
+		assertNull(aplicar("{\"descripcion\":null}", false).descripcion);
+		assertNull(aplicar("{\"descripcion\":null}", true).descripcion);
+	}
+
+	@Test
+	void unNullEnUnCampoObligatorioEs400ConMergePatch() {
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> aplicar("{\"titulo\":null}", true));
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+		assertEquals("El campo titulo no admite null", ex.getReason());
+	}
+
+	@Test
+	void elIdDelTipoTienePrioridadSobreSuNombre() {
+		Ficha ambos = aplicar("{\"tipoUsuarioNombre\":\"tutor\",\"tipoUsuarioId\":3}", false);
+		assertEquals(3L, ambos.tipoId);
+		assertNull(ambos.tipoNombre);
+		assertEquals(List.of("tipoUsuarioId"), ambos.llamadas);
+
+		// sin valor para el id (ausente o null en JSON plano) cuenta el nombre
+		assertEquals("tutor", aplicar("{\"tipoUsuarioNombre\":\"tutor\"}", false).tipoNombre);
+		assertEquals("tutor", aplicar("{\"tipoUsuarioId\":null,\"tipoUsuarioNombre\":\"tutor\"}", false).tipoNombre);
+	}
+
+	@Test
+	void seAplicaEnElOrdenDeLaTablaYNoEnElDelCuerpo() {
+		Ficha f = aplicar("{\"nota\":8.5,\"desconocido\":{\"a\":[1,2]},\"titulo\":\"Nuevo\"}", false);
+		assertEquals(List.of("titulo", "nota"), f.llamadas);
+		assertEquals(new BigDecimal("8.5"), f.nota);
+	}
+
+	@Test
+	void objetosArreglosYValoresMalFormadosSon400() {
+		assertEquals("El campo titulo debe ser un valor simple",
+				assertThrows(ResponseStatusException.class, () -> aplicar("{\"titulo\":{\"x\":1}}", false)).getReason());
+		assertEquals("El campo nota debe ser un valor simple",
+				assertThrows(ResponseStatusException.class, () -> aplicar("{\"nota\":[1]}", true)).getReason());
+		assertEquals("Valor inválido para nota: diez",
+				assertThrows(ResponseStatusException.class, () -> aplicar("{\"nota\":\"diez\"}", false)).getReason());
+		assertEquals("El cuerpo del PATCH debe ser un objeto JSON",
+				assertThrows(ResponseStatusException.class, () -> aplicar("[]", false)).getReason());
+		assertEquals(HttpStatus.BAD_REQUEST,
+				assertThrows(ResponseStatusException.class, () -> aplicar("{\"titulo\":", false)).getStatusCode());
+	}
+
+	@Test
+	void soloSeAceptanJsonYMergePatch() throws Exception {
+		assertTrue(AplicadorPatch.esMergePatch("application/merge-patch+json; charset=UTF-8"));
+		assertFalse(AplicadorPatch.esMergePatch(MediaType.APPLICATION_JSON_VALUE));
+
+		// el 415 lo da el consumes del endpoint, antes de llegar al servicio
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new ProyectoControlador(null, null))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+		mvc.perform(patch("/api/proyectos/1").contentType(MediaType.TEXT_PLAIN).content("titulo=x"))
+				.andExpect(status().isUnsupportedMediaType());
+	}
+
+	private Ficha aplicar(String cuerpo, boolean mergePatch) {
+		Ficha f = new Ficha();
+		aplicador.aplicar(f, new ByteArrayInputStream(cuerpo.getBytes(StandardCharsets.UTF_8)), mergePatch);
+		return f;
+	}
+}
@@ -0,0 +1,55 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.Proyecto;
+import gestionpa.com.interciclo.Entidades.Tutor;
+import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
+import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tutores, estudiantes y proyectos con email, username y código únicos para los tests contra H2. */
+@Component
+class DatosPrueba {
+
+	private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+	private final TutorRepositorio tutorRepositorio;
+	private final EstudianteRepositorio estudianteRepositorio;
+
+	DatosPrueba(TutorRepositorio tutorRepositorio, EstudianteRepositorio estudianteRepositorio) {
+		this.tutorRepositorio = tutorRepositorio;
+		this.estudianteRepositorio = estudianteRepositorio;
+	}
+
+	static int siguiente() {
+		return SECUENCIA.incrementAndGet();
+	}
+
+	Tutor tutor() {
+		int n = siguiente();
+		return tutorRepositorio.save(Tutor.builder().nombre("Tutor").apellido("Prueba")
+				.email("tprueba" + n + "@tutor.com").username("tprueba" + n).password("x").build());
+	}
+
+	Estudiante estudiante() {
+		int n = siguiente();
+		return estudianteRepositorio.save(Estudiante.builder().nombre("Est").apellido("Prueba")
+				.email("eprueba" + n + "@uni.edu").username("eprueba" + n).password("x").codigo("EPRU-" + n).build());
+	}
+
+	/** Sin guardar: tutor y estudiante van sólo con id, como llegan en el JSON de la API. */
+	static Proyecto proyecto(Tutor t, Estudiante e) {
+		return proyecto(t, e, EstadoProyecto.PROPUESTO);
+	}
+
+	static Proyecto proyecto(Tutor t, Estudiante e, EstadoProyecto estado) {
+		return Proyecto.builder().codigo("PRJ-PRU-" + siguiente()).titulo("Título").resumen("Resumen")
+				.estado(estado)
+				.tutor(Tutor.builder().id(t.getId()).build())
+				.estudiante(Estudiante.builder().id(e.getId()).build())
+				.build();
+	}
+}
@@ -0,0 +1,122 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.EventoSaliente;
+import gestionpa.com.interciclo.Entidades.Proyecto;
+import gestionpa.com.interciclo.Repositorios.EventoSalienteRepositorio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Outbox: el evento se escribe con el cambio y se borra al entregarse; si el destino falla, se reintenta. */
+@SpringBootTest(properties = "app.outbox.intervalo-ms=3600000") // sin despachos programados durante el test
+@Import(DespachadorEventosTests.Receptor.class)
+class DespachadorEventosTests {
+
+	/** Oyente de DestinoEventosLocal (el destino por defecto). */
+	static class Receptor {
+		final List<EventoSaliente> recibidos = new CopyOnWriteArrayList<>();
+		volatile boolean fallar;
+		volatile Runnable alRecibir = () -> { };
+
+		@EventListener
+		void recibir(EventoSaliente e) {
+			alRecibir.run();
+			if (fallar) throw new IllegalStateException("destino caído");
+			recibidos.add(e);
+		}
+	}
+
+	@Autowired
+	ProyectoServicio proyectoServicio;
+
+	@Autowired
+	DespachadorEventos despachador;
+
+	@Autowired
+	EventoSalienteRepositorio outbox;
+
+	@Autowired
+	Receptor receptor;
+
+	@Autowired
+	DatosPrueba datos;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void vaciar() {
+		outbox.deleteAll();
+		receptor.recibidos.clear();
+		receptor.fallar = false;
+		receptor.alRecibir = () -> { };
+	}
+
+	@Test
+	void soloLosCambiosConfirmadosLleganAlDestino() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+			proyectoServicio.crear(proyecto());
+			tx.setRollbackOnly();
+		});
+		assertEquals(0, outbox.count(), "un cambio revertido no deja evento");
+
+		Proyecto creado = proyectoServicio.crear(proyecto());
+		assertEquals(1, outbox.count());
+
+		despachador.despachar();
+		assertEquals(1, receptor.recibidos.size());
+		assertEquals(creado.getId(), receptor.recibidos.get(0).getProyectoId());
+		assertEquals(0, outbox.count(), "entregado y borrado");
+	}
+
+	@Test
+	void unLoteFallidoQuedaAplazadoConSuError() {
+		proyectoServicio.crear(proyecto());
+		receptor.fallar = true;
+
+		assertEquals(-1, despachador.despacharLote());
+		EventoSaliente pendiente = outbox.findAll().get(0);
+		assertEquals(1, pendiente.getIntentos());
+		assertEquals("destino caído", pendiente.getUltimoError());
+		assertTrue(pendiente.getProximoIntento().isAfter(Instant.now()));
+
+		// todavía no toca reintentarlo
+		receptor.fallar = false;
+		assertEquals(0, despachador.despacharLote());
+		assertTrue(receptor.recibidos.isEmpty());
+	}
+
+	@Test
+	void laEntregaCorreFueraDeTransaccionConElLoteYaReservado() {
+		proyectoServicio.crear(proyecto());
+		AtomicBoolean enTransaccion = new AtomicBoolean(true);
+		AtomicReference<Instant> reservadoHasta = new AtomicReference<>();
+		receptor.alRecibir = () -> {
+			enTransaccion.set(TransactionSynchronizationManager.isActualTransactionActive());
+			reservadoHasta.set(outbox.findAll().get(0).getProximoIntento()); // lo que ve otra instancia
+		};
+
+		assertEquals(1, despachador.despacharLote());
+		assertFalse(enTransaccion.get(), "sin locks ni conexión retenidos durante la entrega");
+		assertTrue(reservadoHasta.get().isAfter(Instant.now()), "la reserva ya está confirmada");
+		assertEquals(0, outbox.count());
+	}
+
+	private Proyecto proyecto() {
+		return DatosPrueba.proyecto(datos.tutor(), datos.estudiante());
+	}
+}
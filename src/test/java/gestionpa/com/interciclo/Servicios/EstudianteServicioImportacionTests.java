@@ -0,0 +1,87 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.ReporteImportacion;
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.TipoUsuario;
+import gestionpa.com.interciclo.Repositorios.EstudianteRepositorio;
+import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
+import gestionpa.com.interciclo.Seguridad.PoolHash;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Un hash que PoolHash rechaza (429) cuesta su fila, no la importación entera. */
+@SpringBootTest
+class EstudianteServicioImportacionTests {
+
+	@Autowired
+	EstudianteRepositorio estudianteRepositorio;
+
+	@Autowired
+	TipoUsuarioRepositorio tipoUsuarioRepositorio;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	Validator validator;
+
+	@Autowired
+	PoolHash poolHash;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	/* Siempre saturado para la password "ocupado"; el resto se "hashea" con un prefijo. */
+	private final PasswordEncoder encoder = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence raw) {
+			if ("ocupado".contentEquals(raw)) throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Servidor ocupado");
+			return "hash:" + raw;
+		}
+
+		@Override
+		public boolean matches(CharSequence raw, String codificada) {
+			return codificada.equals(encode(raw));
+		}
+	};
+
+	@Test
+	void unHashRechazadoSeReportaEnSuFila() {
+		if (!tipoUsuarioRepositorio.existsByNombre("ESTUDIANTE")) {
+			tipoUsuarioRepositorio.save(TipoUsuario.builder().nombre("ESTUDIANTE").build());
+		}
+		EstudianteServicio servicio = new EstudianteServicio(estudianteRepositorio, encoder, entityManager, validator,
+				new TipoUsuarioRegistro(tipoUsuarioRepositorio, 300), poolHash, transactionManager);
+		long n = System.nanoTime() % 1_000_000;
+
+		ReporteImportacion r = servicio.importar(List.of(
+				estudiante("imp" + n + "a", "secreta"),
+				estudiante("imp" + n + "b", "ocupado"),
+				estudiante("imp" + n + "c", "otra")));
+
+		assertEquals(3, r.getTotal());
+		assertEquals(2, r.getCreados());
+		assertEquals(1, r.getErrores().size());
+		assertEquals(2, r.getErrores().get(0).getFila());
+		assertTrue(r.getErrores().get(0).getMensaje().contains("Servidor ocupado"), r.getErrores().get(0).getMensaje());
+		assertEquals("hash:secreta", estudianteRepositorio.findByUsername("imp" + n + "a").orElseThrow().getPassword());
+		assertTrue(estudianteRepositorio.findByUsername("imp" + n + "b").isEmpty());
+		servicio.cerrar();
+	}
+
+	private static Estudiante estudiante(String usuario, String password) {
+		return Estudiante.builder().nombre("Est").apellido("Importado").email(usuario + "@uni.edu").username(usuario)
+				.password(password).codigo(usuario.toUpperCase()).build();
+	}
+}
@@ -0,0 +1,68 @@
+package gestionpa.com.interciclo.Servicios;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Campos entre comillas que abarcan varias líneas, con comillas escapadas entre medias, y comillas sueltas. */
+class LectorCsvTests {
+
+	@Test
+	void unCampoEntreComillasPuedeAbarcarVariasLineas() throws Exception {
+		String csv = "codigo;resumen;area\n"
+				+ "P1;\"línea 1\nuna \"\"cita\"\"\n\nlínea 4\";Sistemas\n"
+				+ "P2;corto;Redes\n";
+		LectorCsv lector = new LectorCsv(new StringReader(csv));
+
+		Map<String, String> r = lector.siguiente();
+		assertEquals("línea 1\nuna \"cita\"\n\nlínea 4", r.get("resumen"));
+		assertEquals("Sistemas", r.get("area"));
+		assertEquals(2, lector.fila());
+
+		r = lector.siguiente();
+		assertEquals("P2", r.get("codigo"));
+		assertEquals(6, lector.fila(), "la fila cuenta las líneas físicas del registro anterior");
+		assertNull(lector.siguiente());
+	}
+
+	@Test
+	void unaComillaSueltaSeReportaYLaLecturaSigueEnLaLineaSiguiente() throws Exception {
+		String csv = "codigo;resumen\n"
+				+ "P1;\"sin cerrar\n"
+				+ "P2;bien\n"
+				+ "P3;también\n";
+		LectorCsv lector = new LectorCsv(new StringReader(csv));
+
+		Map<String, String> r = lector.siguiente();
+		assertEquals("P1", r.get("codigo"));
+		assertEquals(2, lector.fila());
+		assertTrue(lector.error().contains("final del archivo"), lector.error());
+
+		r = lector.siguiente();
+		assertNull(lector.error());
+		assertEquals("P2", r.get("codigo"));
+		assertEquals(3, lector.fila());
+		assertEquals("P3", lector.siguiente().get("codigo"));
+		assertEquals(4, lector.fila());
+		assertNull(lector.siguiente());
+	}
+
+	@Test
+	void unRegistroNoAbarcaMasDelTope() throws Exception {
+		StringBuilder csv = new StringBuilder("codigo;resumen\nP1;\"abre\n");
+		for (int i = 0; i < LectorCsv.MAX_LINEAS + 10; i++) csv.append("P").append(i + 2).append(";x\n");
+		csv.append("cierra\"\n");
+		LectorCsv lector = new LectorCsv(new StringReader(csv.toString()));
+
+		lector.siguiente();
+		assertTrue(lector.error().contains(LectorCsv.MAX_LINEAS + " líneas"), lector.error());
+
+		Map<String, String> r = lector.siguiente();
+		assertNull(lector.error());
+		assertEquals("P2", r.get("codigo"));
+		assertEquals(3, lector.fila());
+	}
+}
@@ -0,0 +1,45 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.Tutor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** clave() sólo equivale al upper() de PostgreSQL en ASCII: email y username no admiten otros caracteres. */
+class NormalizacionTests {
+
+	private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+	@Test
+	void laClaveEsElUpperDeAscii() {
+		assertEquals("ANA.PEREZ_01@UNI.EDU", Normalizacion.clave("Ana.Perez_01@uni.edu"));
+		assertTrue(Normalizacion.mismaClave("ana@x.com", "ANA@X.com"));
+		// fuera de ASCII Java expande ("SS") y PostgreSQL no: por eso esos valores no llegan a compararse
+		assertEquals("STRASSE", Normalizacion.clave("straße"));
+	}
+
+	@Test
+	void emailYUsernameFueraDeAsciiNoSonValidos() {
+		Tutor t = Tutor.builder().nombre("Tutor").apellido("Prueba").email("ana@uni.edu").username("straße")
+				.password("x").build();
+		assertEquals("username", unicaViolacion(validator.validate(t)));
+
+		Estudiante e = Estudiante.builder().nombre("Est").apellido("Prueba").email("josé@uni.edu").username("jose")
+				.password("x").codigo("E-1").build();
+		assertEquals("email", unicaViolacion(validator.validate(e)));
+
+		t.setUsername("strasse");
+		assertTrue(validator.validate(t).isEmpty());
+	}
+
+	private static String unicaViolacion(Set<? extends ConstraintViolation<?>> violaciones) {
+		assertEquals(1, violaciones.size(), violaciones.toString());
+		return violaciones.iterator().next().getPropertyPath().toString();
+	}
+}
@@ -0,0 +1,107 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.DTO.ProyectoEvento;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Réplica por Last-Event-ID, hueco en el buffer y filtros del flujo de eventos (sin contexto de Spring). */
+class ProyectoEventosServicioTests {
+
+	private static final Duration ESPERA = Duration.ofSeconds(5);
+
+	// buffer de 3 eventos; latido y duración largos para que no interfieran
+	private final ProyectoEventosServicio servicio = new ProyectoEventosServicio(new SimpleMeterRegistry(), 3, 16, 10, 3600, 60);
+
+	@AfterEach
+	void cerrar() {
+		servicio.cerrar();
+	}
+
+	@Test
+	void reanudaDesdeLastEventIdYAvisaSiSalioDelBuffer() {
+		ServerSentEvent<ProyectoEvento> primero = primerEvento(null, null, null, () -> publicar(1L, 10L, EstadoProyecto.PROPUESTO));
+		long id1 = Long.parseLong(primero.id());
+		publicar(2L, 10L, EstadoProyecto.PROPUESTO);
+		publicar(3L, 10L, EstadoProyecto.PROPUESTO);
+
+		// id1 sigue en el buffer: llegan 2 y 3, en orden
+		StepVerifier.create(servicio.suscribir(id1, null, null).take(2))
+				.assertNext(e -> assertEquals(2L, e.data().getProyectoId()))
+				.assertNext(e -> assertEquals(3L, e.data().getProyectoId()))
+				.expectComplete()
+				.verify(ESPERA);
+
+		publicar(4L, 10L, EstadoProyecto.PROPUESTO);
+		publicar(5L, 10L, EstadoProyecto.PROPUESTO);
+		// quedan 3, 4 y 5: desde id1 falta el 2, y un id de otro arranque tampoco sirve
+		StepVerifier.create(servicio.suscribir(id1, null, null).take(1))
+				.assertNext(e -> assertEquals(ProyectoEventosServicio.EVENTO_REINICIO, e.event()))
+				.expectComplete()
+				.verify(ESPERA);
+		StepVerifier.create(servicio.suscribir(0L, null, null).take(1))
+				.assertNext(e -> assertEquals(ProyectoEventosServicio.EVENTO_REINICIO, e.event()))
+				.expectComplete()
+				.verify(ESPERA);
+	}
+
+	@Test
+	void filtraPorTutorYPorEstadoDeOrigenODestino() {
+		StepVerifier.create(servicio.suscribir(null, 7L, EstadoProyecto.EN_DESARROLLO).take(2))
+				.then(() -> {
+					publicar(1L, 8L, EstadoProyecto.EN_DESARROLLO); // otro tutor
+					publicar(2L, 7L, EstadoProyecto.PROPUESTO);   // otro estado
+					publicar(3L, 7L, EstadoProyecto.EN_DESARROLLO);
+					servicio.alConfirmar(new ProyectoEvento(ProyectoEvento.Tipo.ACTUALIZADO, 4L, "PRJ-4",
+							EstadoProyecto.FINALIZADO, EstadoProyecto.EN_DESARROLLO, 7L, Instant.now()));
+				})
+				.assertNext(e -> assertEquals(3L, e.data().getProyectoId()))
+				.assertNext(e -> {
+					assertEquals(4L, e.data().getProyectoId());
+					assertEquals("ACTUALIZADO", e.event());
+				})
+				.expectComplete()
+				.verify(ESPERA);
+	}
+
+	@Test
+	void elTopeDeClientesSeReservaAlSuscribirYSeLiberaAlTerminar() {
+		List<Flux<ServerSentEvent<ProyectoEvento>>> flujos = new ArrayList<>();
+		for (int i = 0; i < 10; i++) flujos.add(servicio.suscribir(null, null, null));
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> servicio.suscribir(null, null, null));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+
+		flujos.get(0).subscribe().dispose();
+		assertNotNull(servicio.suscribir(null, null, null));
+	}
+
+	private ServerSentEvent<ProyectoEvento> primerEvento(Long desde, Long tutorId, EstadoProyecto estado, Runnable accion) {
+		AtomicReference<ServerSentEvent<ProyectoEvento>> recibido = new AtomicReference<>();
+		StepVerifier.create(servicio.suscribir(desde, tutorId, estado).take(1))
+				.then(accion)
+				.consumeNextWith(recibido::set)
+				.expectComplete()
+				.verify(ESPERA);
+		return recibido.get();
+	}
+
+	private void publicar(Long proyectoId, Long tutorId, EstadoProyecto estado) {
+		servicio.alConfirmar(new ProyectoEvento(ProyectoEvento.Tipo.CREADO, proyectoId, "PRJ-" + proyectoId,
+				estado, null, tutorId, Instant.now()));
+	}
+}
@@ -0,0 +1,316 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Config.ContadorSql;
+import gestionpa.com.interciclo.Config.GlobalExceptionHandler;
+import gestionpa.com.interciclo.DTO.CambioEstadoProyectos;
+import gestionpa.com.interciclo.DTO.ReporteCalificaciones;
+import gestionpa.com.interciclo.DTO.ReporteImportacion;
+import gestionpa.com.interciclo.DTO.ResultadoCambioEstado;
+import gestionpa.com.interciclo.DTO.VersionRecurso;
+import gestionpa.com.interciclo.Entidades.EstadoProyecto;
+import gestionpa.com.interciclo.Entidades.Estudiante;
+import gestionpa.com.interciclo.Entidades.Proyecto;
+import gestionpa.com.interciclo.Entidades.Tutor;
+import gestionpa.com.interciclo.Repositorios.ProyectoRepositorio;
+import gestionpa.com.interciclo.Repositorios.TutorRepositorio;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static gestionpa.com.interciclo.Servicios.DatosPrueba.proyecto;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Sentencias SQL que cuesta escribir un proyecto (contadas con ContadorSql sobre H2). */
+@SpringBootTest
+class ProyectoServicioSqlTests {
+
+	@Autowired
+	ProyectoServicio proyectoServicio;
+
+	@Autowired
+	TutorRepositorio tutorRepositorio;
+
+	@Autowired
+	ProyectoRepositorio proyectoRepositorio;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	DatosPrueba datos;
+
+	private final GlobalExceptionHandler manejador = new GlobalExceptionHandler();
+
+	@Test
+	void crearSonDosInsertYPatchConReferenciasCincoSentencias() {
+		Tutor t1 = datos.tutor(), t2 = datos.tutor();
+		Estudiante e0 = datos.estudiante(), e1 = datos.estudiante(), e2 = datos.estudiante();
+		// el primero puede pedir un bloque de ids a las secuencias (uno cada 50 inserts)
+		proyectoServicio.crear(proyecto(t1, e0));
+
+		ContadorSql.reiniciar();
+		Proyecto creado = proyectoServicio.crear(proyecto(t1, e1));
+		assertEquals(2, ContadorSql.actual(), "crear: INSERT proyecto + INSERT evento_saliente");
+
+		String cuerpo = """
+				{"codigo":"PRJ-SQL-%d","titulo":"Otro título","tutorId":%d,"estudianteId":%d}"""
+				.formatted(DatosPrueba.siguiente(), t2.getId(), e2.getId());
+		ContadorSql.reiniciar();
+		Proyecto editado = proyectoServicio.patch(creado.getId(), json(cuerpo), false, null);
+		assertEquals(5, ContadorSql.actual(), "patch: SELECT proyecto, tutor y estudiante + UPDATE + INSERT evento_saliente");
+		assertEquals(t2.getId(), editado.getTutor().getId());
+		assertEquals(e2.getId(), editado.getEstudiante().getId());
+	}
+
+	@Test
+	void lasRestriccionesDeLaBdSeTraducenAlMensajeDelServicio() {
+		Tutor t = datos.tutor();
+		Estudiante e1 = datos.estudiante(), e2 = datos.estudiante();
+		Proyecto p1 = proyectoServicio.crear(proyecto(t, e1));
+		Proyecto p2 = proyectoServicio.crear(proyecto(t, e2));
+
+		Proyecto huerfano = proyecto(Tutor.builder().id(-1L).build(), datos.estudiante());
+		DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+				() -> proyectoServicio.crear(huerfano));
+		ResponseEntity<Map<String, Object>> r = manejador.handleIntegrity(ex);
+		assertEquals(HttpStatus.BAD_REQUEST, r.getStatusCode());
+		assertEquals("Tutor inválido", r.getBody().get("message"));
+
+		ex = assertThrows(DataIntegrityViolationException.class,
+				() -> proyectoServicio.patch(p2.getId(), json("{\"estudianteId\":" + e1.getId() + "}"), false, null));
+		r = manejador.handleIntegrity(ex);
+		assertEquals(HttpStatus.CONFLICT, r.getStatusCode());
+		assertEquals("Ese estudiante ya tiene un proyecto", r.getBody().get("message"));
+
+		ex = assertThrows(DataIntegrityViolationException.class,
+				() -> proyectoServicio.patch(p2.getId(), json("{\"codigo\":\"" + p1.getCodigo() + "\"}"), false, null));
+		r = manejador.handleIntegrity(ex);
+		assertEquals(HttpStatus.CONFLICT, r.getStatusCode());
+		assertEquals("Código de proyecto duplicado", r.getBody().get("message"));
+	}
+
+	@Test
+	void versionEsUnaConsultaYIfMatchExigeLaActual() {
+		Proyecto p = proyectoServicio.crear(proyecto(datos.tutor(), datos.estudiante()));
+		String coleccion = proyectoServicio.versionColeccion().etag();
+
+		ContadorSql.reiniciar();
+		VersionRecurso v = proyectoServicio.version(p.getId());
+		assertEquals(1, ContadorSql.actual(), "version: un SELECT por PK");
+		// la consulta y el cálculo desde la entidad dan la misma ETag
+		assertEquals(v.etag(), ProyectoServicio.versionDe(proyectoServicio.obtenerPorId(p.getId())).etag());
+
+		Proyecto editado = proyectoServicio.patch(p.getId(), json("{\"titulo\":\"Con If-Match\"}"), false, v.etag());
+		assertEquals(p.getVersion() + 1, editado.getVersion());
+		assertEquals(ProyectoServicio.versionDe(editado).etag(), proyectoServicio.version(p.getId()).etag());
+		assertNotEquals(coleccion, proyectoServicio.versionColeccion().etag());
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> proyectoServicio.patch(p.getId(), json("{\"titulo\":\"Tarde\"}"), false, v.etag()));
+		assertEquals(HttpStatus.PRECONDITION_FAILED, ex.getStatusCode());
+	}
+
+	@Test
+	void laEtagDeColeccionNoCompensaVersionesDeDistintasEntidades() {
+		Tutor nuevo = datos.tutor(), editado = datos.tutor();
+		for (int i = 0; i < 2; i++) {
+			editado.setApellido("Editado " + i);
+			editado = tutorRepositorio.save(editado);
+		}
+		assertEquals(nuevo.getVersion() + 2, editado.getVersion());
+		Proyecto p1 = proyectoServicio.crear(proyecto(editado, datos.estudiante()));
+		Proyecto p2 = proyectoServicio.crear(proyecto(nuevo, datos.estudiante()));
+		String antes = proyectoServicio.versionColeccion().etag();
+
+		// p1 pasa a un tutor con dos versiones menos (+1 -2) y p2 se edita (+1): la suma total no cambia
+		proyectoServicio.patch(p1.getId(), json("{\"tutorId\":" + nuevo.getId() + "}"), false, null);
+		proyectoServicio.patch(p2.getId(), json("{\"titulo\":\"Compensa\"}"), false, null);
+
+		assertNotEquals(antes, proyectoServicio.versionColeccion().etag());
+	}
+
+	@Test
+	void cambioDeEstadoMasivoEsUnSelectYUnUpdate() {
+		Tutor t = datos.tutor();
+		// crear sólo admite PROPUESTO: los demás estados se siembran directamente
+		Proyecto r1 = proyectoRepositorio.save(proyecto(t, datos.estudiante(), EstadoProyecto.EN_REVISION));
+		Proyecto r2 = proyectoRepositorio.save(proyecto(t, datos.estudiante(), EstadoProyecto.EN_REVISION));
+		Proyecto propuesto = proyectoServicio.crear(proyecto(t, datos.estudiante(), EstadoProyecto.PROPUESTO));
+		Proyecto aprobado = proyectoRepositorio.save(proyecto(t, datos.estudiante(), EstadoProyecto.APROBADO));
+		String etag = proyectoServicio.version(r1.getId()).etag();
+
+		CambioEstadoProyectos cambio = new CambioEstadoProyectos();
+		cambio.setEstado(EstadoProyecto.APROBADO);
+		cambio.setIds(List.of(r1.getId(), propuesto.getId(), -1L, r2.getId(), aprobado.getId()));
+		ContadorSql.reiniciar();
+		ResultadoCambioEstado r = proyectoServicio.cambiarEstado(cambio);
+		assertEquals(3, ContadorSql.actual(), "SELECT ... FOR UPDATE + UPDATE + INSERT evento_saliente (en lote)");
+
+		assertEquals(List.of(r1.getId(), r2.getId()), r.getAplicados());
+		assertEquals(List.of(propuesto.getId(), aprobado.getId(), -1L),
+				r.getRechazados().stream().map(ResultadoCambioEstado.Rechazo::getId).toList());
+		Proyecto leido = proyectoServicio.obtenerPorId(r1.getId());
+		assertEquals(EstadoProyecto.APROBADO, leido.getEstado());
+		assertEquals(r1.getVersion() + 1, leido.getVersion());
+		assertNotEquals(etag, proyectoServicio.version(r1.getId()).etag());
+		assertEquals(EstadoProyecto.PROPUESTO, proyectoServicio.obtenerPorId(propuesto.getId()).getEstado());
+
+		// por filtro, una transición que no existe se rechaza entera
+		CambioEstadoProyectos filtro = new CambioEstadoProyectos();
+		filtro.setEstado(EstadoProyecto.FINALIZADO);
+		filtro.setDesde(EstadoProyecto.PROPUESTO);
+		filtro.setTutorId(t.getId());
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> proyectoServicio.cambiarEstado(filtro));
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+		filtro.setEstado(EstadoProyecto.EN_REVISION);
+		assertEquals(List.of(propuesto.getId()), proyectoServicio.cambiarEstado(filtro).getAplicados());
+	}
+
+	@Test
+	void crearPutYPatchSoloAdmitenLasTransicionesDelCambioMasivo() {
+		Tutor t = datos.tutor();
+		Estudiante e = datos.estudiante();
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> proyectoServicio.crear(proyecto(t, e, EstadoProyecto.FINALIZADO)));
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+		Proyecto p = proyectoServicio.crear(proyecto(t, e, EstadoProyecto.PROPUESTO));
+
+		ex = assertThrows(ResponseStatusException.class,
+				() -> proyectoServicio.patch(p.getId(), json("{\"estado\":\"APROBADO\"}"), false, null));
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+		assertEquals("Transición no permitida: PROPUESTO -> APROBADO", ex.getReason());
+		assertEquals(EstadoProyecto.PROPUESTO, proyectoServicio.obtenerPorId(p.getId()).getEstado());
+		proyectoServicio.patch(p.getId(), json("{\"estado\":\"EN_REVISION\"}"), false, null);
+
+		Proyecto completo = proyecto(t, e, EstadoProyecto.FINALIZADO);
+		completo.setCodigo(p.getCodigo());
+		ex = assertThrows(ResponseStatusException.class, () -> proyectoServicio.actualizar(p.getId(), completo, null));
+		assertEquals("Transición no permitida: EN_REVISION -> FINALIZADO", ex.getReason());
+		// repetir el estado actual no es una transición
+		completo.setEstado(EstadoProyecto.EN_REVISION);
+		completo.setTitulo("Sin cambio de estado");
+		assertEquals("Sin cambio de estado", proyectoServicio.actualizar(p.getId(), completo, null).getTitulo());
+	}
+
+	@Test
+	void calificacionesDesdeCsvValidanLaColumnaYSubenLaVersion() throws Exception {
+		Tutor t = datos.tutor();
+		Proyecto a = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+		Proyecto b = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+		Proyecto c = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+		proyectoServicio.patch(c.getId(), json("{\"calificacionFinal\":80}"), false, null);
+
+		String csv = String.join("\n",
+				"codigo;calificacionFinal",
+				a.getCodigo() + ";92,5",
+				b.getCodigo() + ";100.001",
+				c.getCodigo() + ";80,00",
+				"PRJ-NO-EXISTE;70",
+				a.getCodigo() + ";60",
+				b.getCodigo() + ";101",
+				b.getCodigo() + ";abc");
+		ContadorSql.reiniciar();
+		ReporteCalificaciones r = proyectoServicio.importarCalificaciones(new StringReader(csv));
+		// el UPDATE va por JdbcTemplate y no pasa por ContadorSql
+		assertEquals(2, ContadorSql.actual(), "un lote: SELECT ... FOR UPDATE + INSERT evento_saliente");
+
+		assertEquals(7, r.getTotal());
+		assertEquals(1, r.getActualizadas());
+		assertEquals(1, r.getSinCambios(), "c ya tenía 80");
+		assertEquals(List.of(3, 5, 6, 7, 8), r.getErrores().stream().map(ReporteImportacion.ErrorFila::getFila).toList());
+		Proyecto leido = proyectoServicio.obtenerPorId(a.getId());
+		assertEquals(0, new BigDecimal("92.5").compareTo(leido.getCalificacionFinal()));
+		assertEquals(a.getVersion() + 1, leido.getVersion());
+		assertNull(proyectoServicio.obtenerPorId(b.getId()).getCalificacionFinal());
+	}
+
+	@Test
+	void conComaComoSeparadorLaComaDecimalSinComillasSeRechaza() throws Exception {
+		Tutor t = datos.tutor();
+		Proyecto a = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+		Proyecto b = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+
+		String csv = String.join("\n",
+				"codigo,calificacionFinal",
+				a.getCodigo() + ",\"92,5\"",
+				b.getCodigo() + ",88,5");
+		ReporteCalificaciones r = proyectoServicio.importarCalificaciones(new StringReader(csv));
+
+		assertEquals(1, r.getActualizadas());
+		assertEquals(1, r.getErrores().size());
+		assertEquals(3, r.getErrores().get(0).getFila());
+		assertTrue(r.getErrores().get(0).getMensaje().contains("coma decimal"), r.getErrores().get(0).getMensaje());
+		assertEquals(0, new BigDecimal("92.5").compareTo(proyectoServicio.obtenerPorId(a.getId()).getCalificacionFinal()));
+		assertNull(proyectoServicio.obtenerPorId(b.getId()).getCalificacionFinal(), "88,5 no se escribe como 88");
+	}
+
+	@Test
+	void unaComillaSinCerrarCuestaSuFilaYNoElRestoDelArchivo() throws Exception {
+		Tutor t = datos.tutor();
+		Proyecto a = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+		Proyecto b = proyectoServicio.crear(proyecto(t, datos.estudiante()));
+
+		String csv = String.join("\n",
+				"codigo;calificacionFinal",
+				a.getCodigo() + ";\"90",
+				b.getCodigo() + ";75");
+		ReporteCalificaciones r = proyectoServicio.importarCalificaciones(new StringReader(csv));
+
+		assertEquals(2, r.getTotal());
+		assertEquals(1, r.getActualizadas());
+		assertEquals(2, r.getErrores().get(0).getFila());
+		assertTrue(r.getErrores().get(0).getMensaje().startsWith("Comillas sin cerrar"), r.getErrores().get(0).getMensaje());
+		assertNull(proyectoServicio.obtenerPorId(a.getId()).getCalificacionFinal());
+		assertEquals(0, new BigDecimal("75").compareTo(proyectoServicio.obtenerPorId(b.getId()).getCalificacionFinal()));
+	}
+
+	@Test
+	void laExportacionNoAcumulaEntidadesEnElContexto() throws Exception {
+		Tutor t = datos.tutor();
+		List<Proyecto> nuevos = new ArrayList<>();
+		for (int i = 0; i <= ProyectoServicio.LOTE_EXPORTACION; i++) nuevos.add(proyecto(t, datos.estudiante()));
+		proyectoRepositorio.saveAll(nuevos);
+
+		// el contexto se mide al volcar al stream, dentro de la transacción de la exportación
+		AtomicInteger gestionadas = new AtomicInteger();
+		AtomicInteger lineas = new AtomicInteger();
+		OutputStream salida = new OutputStream() {
+			@Override
+			public void write(int b) {
+				if (b == '\n') lineas.incrementAndGet();
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				for (int i = off; i < off + len; i++) write(b[i]);
+				gestionadas.set(entityManager.unwrap(SessionImplementor.class)
+						.getPersistenceContext().getNumberOfManagedEntities());
+			}
+		};
+		proyectoServicio.exportarNdjson(salida);
+
+		assertTrue(lineas.get() > ProyectoServicio.LOTE_EXPORTACION);
+		// al final sólo quedan las filas posteriores al último lote (con su tutor, estudiante y rol), no todas
+		assertTrue(gestionadas.get() < ProyectoServicio.LOTE_EXPORTACION, "entidades gestionadas: " + gestionadas.get());
+	}
+
+	private static ByteArrayInputStream json(String cuerpo) {
+		return new ByteArrayInputStream(cuerpo.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,45 @@
+package gestionpa.com.interciclo.Servicios;
+
+import gestionpa.com.interciclo.Entidades.TipoUsuario;
+import gestionpa.com.interciclo.Repositorios.TipoUsuarioRepositorio;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Una carga que se cruza con invalidar() no deja publicada la instantánea anterior a la escritura. */
+class TipoUsuarioRegistroTests {
+
+	private final AtomicReference<String> nombreEnBd = new AtomicReference<>("TUTOR");
+	private final AtomicInteger cargas = new AtomicInteger();
+	private Runnable duranteLaCarga = () -> { };
+
+	private final TipoUsuarioRepositorio repositorio = (TipoUsuarioRepositorio) Proxy.newProxyInstance(
+			getClass().getClassLoader(), new Class<?>[]{TipoUsuarioRepositorio.class}, (proxy, metodo, args) -> {
+				if (!metodo.getName().equals("findAll")) throw new UnsupportedOperationException(metodo.getName());
+				cargas.incrementAndGet();
+				List<TipoUsuario> leidos = List.of(new TipoUsuario(1L, nombreEnBd.get(), null, 0));
+				duranteLaCarga.run(); // la escritura concurrente llega con la lectura ya hecha
+				return leidos;
+			});
+
+	private final TipoUsuarioRegistro registro = new TipoUsuarioRegistro(repositorio, 300);
+
+	@Test
+	void unaInvalidacionDuranteLaCargaNoSeEsconde() {
+		duranteLaCarga = () -> {
+			duranteLaCarga = () -> { };
+			nombreEnBd.set("DOCENTE");
+			registro.invalidar();
+		};
+
+		assertEquals("TUTOR", registro.porId(1L).orElseThrow().getNombre(), "el lector ve lo que leyó");
+		assertEquals("DOCENTE", registro.porId(1L).orElseThrow().getNombre(), "el siguiente ya no usa esa carga");
+		assertEquals("DOCENTE", registro.porId(1L).orElseThrow().getNombre());
+		assertEquals(2, cargas.get(), "la carga vigente se reutiliza");
+	}
+}